@@ -0,0 +1,60 @@
+package redis.embedded.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import redis.embedded.RedisCluster;
+import redis.embedded.core.RedisClusterBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static redis.embedded.RedisCluster.newRedisCluster;
+import static redis.embedded.RedisSentinel.newRedisSentinel;
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.core.LogSink.newDiscardingLogSink;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ClusterStartBenchmark {
+
+    @Param({"1", "3"})
+    public int groups;
+
+    @Param({"0", "1", "2"})
+    public int replicas;
+
+    @Param({"1", "3"})
+    public int sentinels;
+
+    private RedisCluster cluster;
+
+    @TearDown(Level.Iteration)
+    public void stop() throws IOException {
+        if (cluster != null) cluster.stop();
+        cluster = null;
+    }
+
+    @Benchmark
+    public RedisCluster buildAndStart() throws IOException {
+        cluster = buildCluster();
+        cluster.start();
+        return cluster;
+    }
+
+    private RedisCluster buildCluster() throws IOException {
+        final RedisClusterBuilder builder = newRedisCluster()
+            .withServerBuilder(newRedisServer().logSink(newDiscardingLogSink()))
+            .withSentinelBuilder(newRedisSentinel().logSink(newDiscardingLogSink()))
+            .ephemeral()
+            .sentinelCount(sentinels)
+            .quorumSize(Math.max(1, sentinels / 2 + 1));
+        for (int i = 0; i < groups; i++) {
+            builder.replicationGroup("master" + i, replicas);
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,77 @@
+package redis.embedded.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import redis.embedded.core.ExecutableCache;
+import redis.embedded.core.ExecutableProvider;
+import redis.embedded.core.ExecutableProviderBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutableExtractionBenchmark {
+
+    private Path warmDirectory;
+    private ExecutableProvider warmProvider;
+    private Path coldDirectory;
+    private ExecutableProvider coldProvider;
+
+    @Setup(Level.Trial)
+    public void warmUp() throws IOException {
+        warmDirectory = Files.createTempDirectory("embedded-redis-jmh-warm");
+        warmProvider = newProvider(new ExecutableCache(warmDirectory));
+        warmProvider.get();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWarm() throws IOException {
+        deleteRecursively(warmDirectory);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCold() throws IOException {
+        coldDirectory = Files.createTempDirectory("embedded-redis-jmh-cold");
+        coldProvider = newProvider(new ExecutableCache(coldDirectory));
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteCold() throws IOException {
+        deleteRecursively(coldDirectory);
+    }
+
+    @Benchmark
+    public File cold() throws IOException {
+        return coldProvider.get();
+    }
+
+    @Benchmark
+    public File warmSameProvider() throws IOException {
+        return warmProvider.get();
+    }
+
+    @Benchmark
+    public File warmNewProvider() throws IOException {
+        return newProvider(new ExecutableCache(warmDirectory)).get();
+    }
+
+    private static ExecutableProvider newProvider(final ExecutableCache cache) {
+        return new ExecutableProviderBuilder().addProvidedVersions().cache(cache).build();
+    }
+
+    private static void deleteRecursively(final Path directory) throws IOException {
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package redis.embedded.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import redis.embedded.core.PortLeases;
+import redis.embedded.core.PortProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static redis.embedded.core.PortProvider.*;
+import static redis.embedded.util.IO.deleteRecursively;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortProviderBenchmark {
+
+    private final PortProvider ephemeral = newEphemeralPortProvider();
+    private final PortProvider cluster = newEphemeralClusterPortProvider();
+    private final PortProvider sequence = newSequencePortProvider();
+    private PortProvider predefined;
+    private Path leaseDirectory;
+    private PortProvider leased;
+
+    // A private lease directory, so the benchmark does not compete with leases of other JVMs
+    @Setup(Level.Trial)
+    public void createLeases() throws IOException {
+        leaseDirectory = Files.createTempDirectory("port-leases");
+        leased = newLeasedPortProvider(new PortLeases(leaseDirectory, 30000, 30999));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLeases() throws IOException {
+        deleteRecursively(leaseDirectory);
+    }
+
+    @Setup(Level.Invocation)
+    public void refillPredefined() {
+        predefined = newPredefinedPortProvider(Collections.singletonList(6379));
+    }
+
+    @Benchmark
+    public int ephemeral() {
+        return ephemeral.get();
+    }
+
+    @Benchmark
+    public int cluster() {
+        return cluster.get();
+    }
+
+    // Lease and release, the cost a pool or leaser pays for every server it starts
+    @Benchmark
+    public int leased() {
+        final int port = leased.get();
+        leased.release(port);
+        return port;
+    }
+
+    @Benchmark
+    public int sequence() {
+        return sequence.get();
+    }
+
+    @Benchmark
+    public int predefined() {
+        return predefined.get();
+    }
+
+}
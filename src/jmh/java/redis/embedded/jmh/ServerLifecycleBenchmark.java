@@ -0,0 +1,58 @@
+package redis.embedded.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import redis.embedded.RedisServer;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.core.LogSink.newDiscardingLogSink;
+import static redis.embedded.core.PortProvider.newEphemeralPortProvider;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerLifecycleBenchmark {
+
+    private RedisServer server;
+    private int port;
+
+    @Setup(Level.Invocation)
+    public void build() throws IOException {
+        port = newEphemeralPortProvider().get();
+        server = newRedisServer()
+            .port(port)
+            .logSink(newDiscardingLogSink())
+            .build();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws IOException {
+        server.stop();
+    }
+
+    @Benchmark
+    public RedisServer start() throws IOException {
+        server.start();
+        return server;
+    }
+
+    @Benchmark
+    public Object startAndFirstCommand() throws IOException {
+        server.start();
+        return RespClient.command(port, "PING");
+    }
+
+    @Benchmark
+    public RedisServer startAndStop() throws IOException {
+        server.start();
+        server.stop();
+        return server;
+    }
+
+}
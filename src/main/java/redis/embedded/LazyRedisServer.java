@@ -0,0 +1,220 @@
+package redis.embedded;
+
+import redis.embedded.model.StartupStats;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.util.IO.newDaemonThreadFactory;
+import static redis.embedded.util.IO.newPerTaskExecutor;
+
+/**
+ * Holds the port of a server that is only started when somebody connects. Until then a single thread blocks in
+ * {@code accept()} and no Redis process exists. Connections are relayed to the real server, which listens on a private
+ * port, through direct buffers. With a handoff delay the real server takes over the public port itself once the relay
+ * has been idle that long, and later connections go to Redis directly.
+ */
+public final class LazyRedisServer implements Redis {
+
+    private static final int RELAY_BUFFER_SIZE = 64 * 1024;
+
+    private final String bindAddress;
+    private final int port;
+    private final RedisServer backend;
+    private final long handoffAfterIdleMillis;
+
+    private final Set<Relay> relays = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private ExecutorService pumps;
+    private ScheduledExecutorService handoffs;
+    private ScheduledFuture<?> pendingHandoff;
+    private ServerSocketChannel acceptor;
+    private volatile boolean active = false;
+    private volatile boolean handedOff = false;
+
+    public LazyRedisServer(final String bindAddress, final int port, final RedisServer backend,
+                           final long handoffAfterIdleMillis) {
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.backend = backend;
+        this.handoffAfterIdleMillis = handoffAfterIdleMillis;
+    }
+
+    public synchronized void start() throws IOException {
+        if (active) return;
+        pumps = newPerTaskExecutor("LazyRedisServer-" + port);
+        if (handoffAfterIdleMillis > 0) handoffs = newSingleThreadScheduledExecutor(newDaemonThreadFactory("LazyRedisHandoff"));
+        openAcceptor();
+        active = true;
+    }
+
+    public synchronized void stop() throws IOException {
+        if (!active) return;
+        active = false;
+        closeAcceptor();
+        for (final Relay relay : relays) relay.close();
+        pumps.shutdownNow();
+        if (handoffs != null) handoffs.shutdownNow();
+        backend.stop();
+        handedOff = false;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /** True once a client connected and the Redis process was started. */
+    public boolean isBackendRunning() {
+        return backend.isActive();
+    }
+
+    /** True once the Redis process listens on the public port itself. */
+    public boolean isHandedOff() {
+        return handedOff;
+    }
+
+    public int acceptedConnections() {
+        return accepted.get();
+    }
+
+    public RedisServer backend() {
+        return backend;
+    }
+
+    public List<Integer> ports() {
+        return Collections.singletonList(port);
+    }
+
+    public StartupStats startupStats() {
+        return backend.startupStats();
+    }
+
+    private void openAcceptor() throws IOException {
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.bind(new InetSocketAddress(bindAddress, port));
+        } catch (IOException e) {
+            channel.close();
+            throw new IOException("Could not bind lazy Redis server to " + bindAddress + ":" + port, e);
+        }
+        acceptor = channel;
+        final Thread thread = newDaemonThreadFactory("LazyRedisAcceptor-" + port).newThread(() -> accept(channel));
+        thread.start();
+    }
+
+    private void closeAcceptor() {
+        final ServerSocketChannel channel = acceptor;
+        acceptor = null;
+        if (channel != null) closeQuietly(channel);
+    }
+
+    private void accept(final ServerSocketChannel channel) {
+        while (channel.isOpen()) {
+            final SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (IOException e) {
+                return;
+            }
+            try {
+                relay(client);
+            } catch (IOException e) {
+                closeQuietly(client);
+            }
+        }
+    }
+
+    private synchronized void relay(final SocketChannel client) throws IOException {
+        if (!active) throw new IOException("Lazy Redis server is stopped");
+        if (!backend.isActive()) backend.start();
+        if (pendingHandoff != null) pendingHandoff.cancel(false);
+
+        final SocketChannel upstream = SocketChannel.open(new InetSocketAddress(bindAddress, backend.ports().get(0)));
+        final Relay relay = new Relay(client, upstream);
+        relays.add(relay);
+        accepted.incrementAndGet();
+        pumps.execute(() -> relay.pump(client, upstream));
+        pumps.execute(() -> relay.pump(upstream, client));
+    }
+
+    private synchronized void onRelayClosed(final Relay relay) {
+        if (!relays.remove(relay)) return;
+        if (handoffs != null && active && !handedOff && relays.isEmpty()) {
+            pendingHandoff = handoffs.schedule(this::handoff, handoffAfterIdleMillis, MILLISECONDS);
+        }
+    }
+
+    // Connections still being relayed keep working; Redis only swaps its listening socket
+    private synchronized void handoff() {
+        if (!active || handedOff || !relays.isEmpty()) return;
+        closeAcceptor();
+        try (final RespClient client = RespClient.connect(backend.ports().get(0))) {
+            client.call("CONFIG", "SET", "port", Integer.toString(port));
+            backend.movedTo(port);
+            handedOff = true;
+        } catch (IOException e) {
+            try {
+                openAcceptor();
+            } catch (IOException reopen) {
+                /* nothing is listening now; stop() still cleans up */
+            }
+        }
+    }
+
+    private static void closeQuietly(final Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            /* eat quietly */
+        }
+    }
+
+    private final class Relay {
+        private final SocketChannel client;
+        private final SocketChannel upstream;
+        private final AtomicInteger openDirections = new AtomicInteger(2);
+
+        private Relay(final SocketChannel client, final SocketChannel upstream) {
+            this.client = client;
+            this.upstream = upstream;
+        }
+
+        // One direction; a half close is passed on so pipelined clients that shut down output still get replies
+        private void pump(final SocketChannel from, final SocketChannel to) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(RELAY_BUFFER_SIZE);
+            try {
+                while (from.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) to.write(buffer);
+                    buffer.clear();
+                }
+                to.shutdownOutput();
+            } catch (IOException e) {
+                close();
+            }
+            if (openDirections.decrementAndGet() == 0) close();
+        }
+
+        private void close() {
+            closeQuietly(client);
+            closeQuietly(upstream);
+            onRelayClosed(this);
+        }
+    }
+
+}
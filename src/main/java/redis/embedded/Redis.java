@@ -1,9 +1,19 @@
 package redis.embedded;
 
+import redis.embedded.model.Endpoint;
+import redis.embedded.model.StartupStats;
+
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
+import static redis.embedded.util.IO.lifecycleExecutor;
+import static redis.embedded.util.IO.runAsync;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
 public interface Redis {
     int DEFAULT_REDIS_PORT = 6379;
     Pattern SERVER_READY_PATTERN = Pattern.compile(".*[Rr]eady to accept connections.*");
@@ -15,5 +25,31 @@ public interface Redis {
 
     void stop() throws IOException;
 
+    default CompletableFuture<Void> startAsync() {
+        return startAsync(lifecycleExecutor());
+    }
+
+    default CompletableFuture<Void> startAsync(final Executor executor) {
+        return runAsync(this::start, executor);
+    }
+
+    default CompletableFuture<Void> stopAsync() {
+        return stopAsync(lifecycleExecutor());
+    }
+
+    default CompletableFuture<Void> stopAsync(final Executor executor) {
+        return runAsync(this::stop, executor);
+    }
+
     List<Integer> ports();
+
+    default List<Endpoint> endpoints() {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (final int port : ports()) endpoints.add(Endpoint.tcp(DEFAULT_HOST, port));
+        return endpoints;
+    }
+
+    default StartupStats startupStats() {
+        return new StartupStats();
+    }
 }
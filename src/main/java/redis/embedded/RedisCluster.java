@@ -1,20 +1,42 @@
 package redis.embedded;
 
 import redis.embedded.core.RedisClusterBuilder;
+import redis.embedded.model.Endpoint;
+import redis.embedded.model.StartupStats;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static redis.embedded.util.IO.*;
 
 public final class RedisCluster implements Redis {
 
+    public static final int DEFAULT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+
     private final List<Redis> sentinels = new LinkedList<>();
     private final List<Redis> servers = new LinkedList<>();
+    private final Map<Redis, Redis> masterOfReplica = new IdentityHashMap<>();
+    private final int parallelism;
 
     public RedisCluster(final List<Redis> sentinels, final List<Redis> servers) {
         this.servers.addAll(servers);
         this.sentinels.addAll(sentinels);
+        this.parallelism = DEFAULT_PARALLELISM;
+    }
+
+    public RedisCluster(final List<Redis> sentinels, final Map<Redis, List<Redis>> replicationGroups, final int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        this.sentinels.addAll(sentinels);
+        for (final Map.Entry<Redis, List<Redis>> group : replicationGroups.entrySet()) {
+            this.servers.add(group.getKey());
+            for (final Redis replica : group.getValue()) {
+                this.servers.add(replica);
+                this.masterOfReplica.put(replica, group.getKey());
+            }
+        }
+        this.parallelism = parallelism;
     }
 
     @Override
@@ -34,22 +56,157 @@ public final class RedisCluster implements Redis {
 
     @Override
     public void start() throws IOException {
-        for (final Redis redis : sentinels) {
-            redis.start();
-        }
-        for (final Redis redis : servers) {
-            redis.start();
-        }
+        await(startAsync());
     }
 
     @Override
     public void stop() throws IOException {
-        for (final Redis redis : sentinels) {
-            redis.stop();
+        await(stopAsync());
+    }
+
+    @Override
+    public CompletableFuture<Void> startAsync() {
+        final ExecutorService executor = newExecutor("RedisClusterStart");
+        return startAsync(executor, executor::shutdown);
+    }
+
+    // Nodes start on the given executor, so the caller's threads are not held while waiting for replicas
+    @Override
+    public CompletableFuture<Void> startAsync(final Executor executor) {
+        return startAsync(executor, () -> {});
+    }
+
+    private CompletableFuture<Void> startAsync(final Executor executor, final Runnable release) {
+        final Set<Redis> started = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        final AtomicBoolean failed = new AtomicBoolean(false);
+
+        final Map<Redis, CompletableFuture<Void>> serverStarts = new IdentityHashMap<>();
+        for (final Redis server : servers) {
+            final Redis master = masterOfReplica.get(server);
+            final CompletableFuture<Void> dependency = master == null
+                ? CompletableFuture.completedFuture(null)
+                : serverStarts.get(master);
+            serverStarts.put(server, dependency.thenCompose(v -> startNode(server, executor, started, failed)));
         }
-        for (final Redis redis : servers) {
-            redis.stop();
+
+        final CompletableFuture<Void> allStarted = allOf(serverStarts.values())
+            .thenCompose(v -> {
+                final List<CompletableFuture<Void>> sentinelStarts = new ArrayList<>();
+                for (final Redis sentinel : sentinels) {
+                    sentinelStarts.add(startNode(sentinel, executor, started, failed));
+                }
+                return allOf(sentinelStarts);
+            });
+
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        allStarted.whenComplete((v, error) -> {
+            if (error == null) {
+                release.run();
+                result.complete(null);
+                return;
+            }
+            failed.set(true);
+            settled(serverStarts.values()).whenComplete((ignored, ignoredError) -> {
+                final List<CompletableFuture<Void>> rollback = new ArrayList<>();
+                for (final Redis node : started) {
+                    rollback.add(runAsync(node::stop, executor));
+                }
+                settled(rollback).whenComplete((done, rollbackError) -> {
+                    release.run();
+                    result.completeExceptionally(toIOException(error));
+                });
+            });
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> stopAsync() {
+        final ExecutorService executor = newExecutor("RedisClusterStop");
+        return stopAsync(executor, executor::shutdown);
+    }
+
+    @Override
+    public CompletableFuture<Void> stopAsync(final Executor executor) {
+        return stopAsync(executor, () -> {});
+    }
+
+    private CompletableFuture<Void> stopAsync(final Executor executor, final Runnable release) {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        stopNodes(sentinels, executor, errors)
+            .thenCompose(v -> stopNodes(servers, executor, errors))
+            .whenComplete((v, error) -> {
+                release.run();
+                if (errors.isEmpty()) {
+                    result.complete(null);
+                    return;
+                }
+                final IOException failure = toIOException(errors.get(0));
+                for (final Throwable other : errors.subList(1, errors.size())) {
+                    failure.addSuppressed(other);
+                }
+                result.completeExceptionally(failure);
+            });
+        return result;
+    }
+
+    private static CompletableFuture<Void> startNode(final Redis node, final Executor executor,
+                                                     final Set<Redis> started, final AtomicBoolean failed) {
+        final CompletableFuture<Void> future = runAsync(() -> {
+            if (failed.get()) throw new CancellationException("Cluster startup failed on another node");
+            node.start();
+            started.add(node);
+        }, executor);
+        future.whenComplete((v, error) -> {
+            if (error != null) failed.set(true);
+        });
+        return future;
+    }
+
+    private static CompletableFuture<Void> stopNodes(final List<Redis> nodes, final Executor executor,
+                                                     final List<Throwable> errors) {
+        final List<CompletableFuture<Void>> stops = new ArrayList<>();
+        for (final Redis node : nodes) {
+            stops.add(runAsync(node::stop, executor).whenComplete((v, error) -> {
+                if (error != null) errors.add(error);
+            }));
         }
+        return settled(stops);
+    }
+
+    private static CompletableFuture<Void> allOf(final Collection<CompletableFuture<Void>> futures) {
+        final CompletableFuture<?>[] array = new CompletableFuture<?>[futures.size()];
+        return CompletableFuture.allOf(futures.toArray(array));
+    }
+
+    private static CompletableFuture<Void> settled(final Collection<CompletableFuture<Void>> futures) {
+        final List<CompletableFuture<Void>> settled = new ArrayList<>();
+        for (final CompletableFuture<Void> future : futures) {
+            settled.add(future.handle((v, error) -> null));
+        }
+        return allOf(settled);
+    }
+
+    private ExecutorService newExecutor(final String name) {
+        return Executors.newFixedThreadPool(parallelism, newDaemonThreadFactory(name));
+    }
+
+    @Override
+    public StartupStats startupStats() {
+        final List<StartupStats> all = new ArrayList<>();
+        for (final Redis redis : sentinels) all.add(redis.startupStats());
+        for (final Redis redis : servers) all.add(redis.startupStats());
+        return StartupStats.sum(all);
+    }
+
+    @Override
+    public List<Endpoint> endpoints() {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (final Redis redis : sentinels) endpoints.addAll(redis.endpoints());
+        for (final Redis redis : servers) endpoints.addAll(redis.endpoints());
+        return endpoints;
     }
 
     @Override
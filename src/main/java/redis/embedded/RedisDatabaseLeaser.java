@@ -0,0 +1,183 @@
+package redis.embedded;
+
+import redis.embedded.core.PortProvider;
+import redis.embedded.core.RedisDatabaseLeaserBuilder;
+import redis.embedded.core.RedisServerBuilder;
+import redis.embedded.util.RespClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.util.IO.newDaemonThreadFactory;
+
+/**
+ * Hands out logical databases of shared Redis servers, one test per database. A returned database is emptied with
+ * {@code FLUSHDB ASYNC} before it is leased again. Another server is started only when every database of the
+ * running ones is taken.
+ */
+public final class RedisDatabaseLeaser implements Closeable {
+
+    private final RedisServerBuilder serverBuilder;
+    private final PortProvider portProvider;
+    private final int databasesPerServer;
+    private final int maxServers;
+    private final long leaseTimeoutMillis;
+
+    private final BlockingQueue<Database> free = new LinkedBlockingQueue<>();
+    private final List<RedisServer> servers = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(newDaemonThreadFactory("RedisDatabaseLeaser"));
+    private final AtomicLong leases = new AtomicLong();
+    private volatile boolean closed = false;
+
+    public RedisDatabaseLeaser(final RedisServerBuilder serverBuilder, final PortProvider portProvider,
+                               final int databasesPerServer, final int maxServers, final long leaseTimeoutMillis) {
+        this.serverBuilder = serverBuilder;
+        this.portProvider = portProvider;
+        this.databasesPerServer = databasesPerServer;
+        this.maxServers = maxServers;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+    }
+
+    public static RedisDatabaseLeaserBuilder newRedisDatabaseLeaser() {
+        return new RedisDatabaseLeaserBuilder();
+    }
+
+    public RedisDatabaseLeaser warmUp() throws IOException {
+        if (servers.isEmpty()) scaleOut();
+        return this;
+    }
+
+    public Lease lease() throws IOException {
+        if (closed) throw new IllegalStateException("Redis database leaser is closed");
+
+        Database database = free.poll();
+        if (database == null) {
+            scaleOut();
+            try {
+                database = free.poll(leaseTimeoutMillis, MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a Redis database", e);
+            }
+            if (database == null)
+                throw new IOException("Timed out after " + leaseTimeoutMillis + "ms waiting for one of "
+                    + servers.size() * databasesPerServer + " Redis databases");
+        }
+        leases.incrementAndGet();
+        return new Lease(database);
+    }
+
+    public int serverCount() {
+        return servers.size();
+    }
+
+    public int availableDatabases() {
+        return free.size();
+    }
+
+    public long totalLeases() {
+        return leases.get();
+    }
+
+    public void close() throws IOException {
+        closed = true;
+        executor.shutdownNow();
+        IOException failure = null;
+        for (final RedisServer server : servers) {
+            try {
+                server.stop();
+                portProvider.release(server.ports().get(0));
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        servers.clear();
+        free.clear();
+        if (failure != null) throw failure;
+    }
+
+    private synchronized void scaleOut() throws IOException {
+        if (closed || !free.isEmpty() || servers.size() >= maxServers) return;
+
+        final int port = portProvider.get();
+        final RedisServer server;
+        try {
+            server = serverBuilder.copy().port(port).setting("databases " + databasesPerServer).build();
+            server.start();
+        } catch (IOException | RuntimeException e) {
+            portProvider.release(port);
+            throw e;
+        }
+        servers.add(server);
+        for (int index = 0; index < databasesPerServer; index++) {
+            free.offer(new Database(server, port, index));
+        }
+    }
+
+    private void release(final Database database) {
+        if (closed) return;
+        try {
+            executor.execute(() -> {
+                if (flush(database) && !closed) free.offer(database);
+            });
+        } catch (RejectedExecutionException e) {
+            /* closed while returning */
+        }
+    }
+
+    // A database that could not be flushed is never handed out again
+    private static boolean flush(final Database database) {
+        try (final RespClient client = RespClient.connect(database.port)) {
+            client.send("SELECT", Integer.toString(database.index)).send("FLUSHDB", "ASYNC");
+            client.readOk();
+            client.readOk();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class Database {
+        private final RedisServer server;
+        private final int port;
+        private final int index;
+
+        private Database(final RedisServer server, final int port, final int index) {
+            this.server = server;
+            this.port = port;
+            this.index = index;
+        }
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final Database database;
+        private boolean returned = false;
+
+        private Lease(final Database database) {
+            this.database = database;
+        }
+
+        public RedisServer server() {
+            return database.server;
+        }
+
+        public int port() {
+            return database.port;
+        }
+
+        public int database() {
+            return database.index;
+        }
+
+        public synchronized void close() {
+            if (returned) return;
+            returned = true;
+            release(database);
+        }
+    }
+
+}
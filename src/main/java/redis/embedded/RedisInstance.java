@@ -1,78 +1,352 @@
 package redis.embedded;
 
-import redis.embedded.util.CheckedRunnable;
+import redis.embedded.core.LifecycleOptions;
+import redis.embedded.core.PortLeases;
+import redis.embedded.core.ReadinessContext;
+import redis.embedded.core.ReadinessStrategy;
+import redis.embedded.core.WorkingDirectories;
+import redis.embedded.model.Endpoint;
+import redis.embedded.model.LogSource;
+import redis.embedded.model.ShutdownMode;
+import redis.embedded.model.StartupStats;
+import redis.embedded.util.LogBuffer;
+import redis.embedded.util.LogPump;
+import redis.embedded.util.RespClient;
+import redis.embedded.util.ShutdownHooks;
 
-import java.io.File;
+import java.io.EOFException;
 import java.io.IOException;
-import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.core.ReadinessStrategy.inSequence;
+import static redis.embedded.core.ReadinessStrategy.isProcess;
+import static redis.embedded.core.ReadinessStrategy.newDatasetLoadedReadinessStrategy;
+import static redis.embedded.model.StartupPhase.*;
 import static redis.embedded.util.IO.*;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
 
 public abstract class RedisInstance implements Redis {
 
+    private static final String
+        DATASET_FILE_NAME = "dump.rdb",
+        CONFIG_FILE_NAME = "redis.conf",
+        ADDRESS_IN_USE = "Address already in use";
+    private static final int MAX_BIND_ATTEMPTS = 5;
+    private static final Set<RedisInstance> RUNNING = ConcurrentHashMap.newKeySet();
+
     private final Pattern readyPattern;
-    private final int port;
+    private volatile int port;
     private final List<String> args;
-    private final boolean forceStop;
+    private final LifecycleOptions options;
+    private final LogBuffer logBuffer;
+    private final StartupStats startupStats = new StartupStats();
+    private final Path workingDirectory;
 
     private volatile boolean active = false;
-    private Process process;
+    // Only a port this instance leased is released by it; others may belong to a pool or to the caller
+    private boolean leased;
+    private volatile Process process;
 
     protected RedisInstance(final int port, final List<String> args, final Pattern readyPattern, final boolean forceStop) {
+        this(port, args, readyPattern, new LifecycleOptions().forceStop(forceStop));
+    }
+
+    protected RedisInstance(final int port, final List<String> args, final Pattern readyPattern,
+                            final LifecycleOptions options) {
         this.port = port;
-        this.args = args;
+        this.args = new ArrayList<>(args);
         this.readyPattern = readyPattern;
-        this.forceStop = forceStop;
+        this.options = options;
+        this.leased = options.portLeased();
+        this.logBuffer = new LogBuffer(options.logBufferLines());
+        this.workingDirectory = options.workingDirectory() != null ? options.workingDirectory()
+            : WorkingDirectories.newWorkingDirectory(WorkingDirectories.defaultRoot());
     }
 
     public synchronized void start() throws IOException {
         if (active) return;
 
+        if (options.rebindOnConflict() && !leased) {
+            if (!PortLeases.shared().tryLease(port)) rebind(PortLeases.shared().lease());
+            leased = true;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                startProcess();
+                return;
+            } catch (IOException e) {
+                if (!options.rebindOnConflict()) throw e;
+                releaseLease();
+                if (attempt >= MAX_BIND_ATTEMPTS || !isAddressInUse(e)) throw e;
+                rebind(PortLeases.shared().lease());
+                leased = true;
+            }
+        }
+    }
+
+    private void releaseLease() {
+        if (!leased) return;
+        PortLeases.shared().release(port);
+        leased = false;
+    }
+
+    @SuppressWarnings("try")
+    private void startProcess() throws IOException {
+        final String name = name();
         try {
-            process = new ProcessBuilder(args)
-                .directory(new File(args.get(0)).getParentFile())
-                .start();
-            addShutdownHook("RedisInstanceCleaner", checkedToRuntime(this::stop));
-            logStream(process.getErrorStream(), System.out::println);
-            awaitServerReady();
+            Files.createDirectories(workingDirectory);
+            if (options.unixSocket() != null) Files.createDirectories(options.unixSocket().getParent());
+            final List<String> command = new ArrayList<>(args);
+            if (options.config() != null) {
+                try (final StartupStats.PhaseTimer timer = startupStats.time(name, CONFIG_MATERIALIZATION)) {
+                    command.add(1, options.config().writeTo(workingDirectory.resolve(CONFIG_FILE_NAME)).toString());
+                }
+            }
+            if (options.dataset() != null) {
+                try (final StartupStats.PhaseTimer timer = startupStats.time(name, DATASET_PLACEMENT)) {
+                    linkOrCopy(options.dataset(), workingDirectory.resolve(DATASET_FILE_NAME));
+                }
+            }
+            try (final StartupStats.PhaseTimer timer = startupStats.time(name, PROCESS_SPAWN)) {
+                process = new ProcessBuilder(command)
+                    .directory(workingDirectory.toFile())
+                    .start();
+            }
+            final ReadinessContext context = new ReadinessContext(process, primaryEndpoint(), readyPattern);
+            pumpOutput(context);
+            try (final StartupStats.PhaseTimer timer = startupStats.time(name, READINESS)) {
+                awaitServerReady(context);
+            }
 
             active = true;
+            RUNNING.add(this);
+            ShutdownHooks.register(this, this::stopAndDelete);
         } catch (IOException e) {
-            throw new IOException("Failed to start Redis service", e);
+            killQuietly(process);
+            final IOException failure = new IOException("Failed to start Redis service", e);
+            if (!keepsWorkingDirectory()) {
+                try {
+                    deleteRecursively(workingDirectory);
+                } catch (IOException cleanup) {
+                    failure.addSuppressed(cleanup);
+                }
+            }
+            throw failure;
         }
     }
 
-    private void awaitServerReady() throws IOException {
-        final StringBuilder log = new StringBuilder();
-        if (!findMatchInStream(process.getInputStream(), readyPattern, log))
-            throw new IOException("Ready pattern not found in log. Startup log: " + log);
+    // Redis was told to listen elsewhere at runtime; the private port it gave up is not needed any more
+    synchronized void movedTo(final int newPort) {
+        releaseLease();
+        rebind(newPort);
     }
 
-    public synchronized void stop() throws IOException {
-        if (!active) return;
+    private void rebind(final int newPort) {
+        final int index = args.lastIndexOf("--port");
+        if (index == -1 || index + 1 >= args.size())
+            throw new IllegalStateException("Can not rebind " + name() + " without a --port argument");
+        args.set(index + 1, Integer.toString(newPort));
+        port = newPort;
+    }
+
+    private static boolean isAddressInUse(final Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            final String message = cause.getMessage();
+            if (message != null && message.contains(ADDRESS_IN_USE)) return true;
+        }
+        return false;
+    }
+
+    private void pumpOutput(final ReadinessContext context) {
+        final String name = name();
+        final LogPump pump = LogPump.shared();
+        pump.register(process, process.getInputStream(), new LogPump.LineHandler() {
+            public void onLine(final String line) {
+                logBuffer.add(line);
+                options.logSink().accept(name, LogSource.STDOUT, line);
+                context.onLine(line);
+            }
+            public void onEnd() {
+                context.onEndOfOutput();
+            }
+        });
+        pump.register(process, process.getErrorStream(), line -> {
+            logBuffer.add(line);
+            options.logSink().accept(name, LogSource.STDERR, line);
+        });
+    }
+
+    private static void killQuietly(final Process process) {
+        if (process == null) return;
+        try {
+            process.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A server asked to SAVE on shutdown keeps its snapshot for the next start; the directory goes at JVM exit
+    private boolean keepsWorkingDirectory() {
+        return options.shutdownMode() == ShutdownMode.SAVE;
+    }
+
+    private void stopAndDelete() throws IOException {
+        stop();
+        deleteRecursively(workingDirectory);
+    }
+
+    public Path workingDirectory() {
+        return workingDirectory;
+    }
+
+    private void awaitServerReady(final ReadinessContext context) throws IOException {
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        final ReadinessStrategy readiness = options.dataset() == null ? options.readiness()
+            : inSequence(options.readiness(), newDatasetLoadedReadinessStrategy());
+        readiness.whenReady(context).whenComplete((v, error) -> {
+            if (error == null) ready.complete(null);
+            else ready.completeExceptionally(error);
+        });
+        context.outputClosed().whenComplete((v, error) -> ready.completeExceptionally(error));
 
         try {
-            if (forceStop)
-                process.destroyForcibly();
-            else {
-                process.destroy();
-                process.waitFor();
+            ready.get(options.startupTimeoutMillis(), MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Redis did not become ready within " + options.startupTimeoutMillis() + "ms. Startup log: " + context.startupLog());
+        } catch (ExecutionException e) {
+            awaitEndOfOutput(context);
+            throw new IOException(e.getCause().getMessage() + ". Startup log: " + context.startupLog(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Redis to become ready", e);
+        } finally {
+            context.settle();
+        }
+    }
+
+    private static void awaitEndOfOutput(final ReadinessContext context) {
+        if (context.process().isAlive()) return;
+        try {
+            context.outputClosed().handle((v, error) -> null).get(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            /* log is as complete as it gets */
+        }
+    }
+
+    @SuppressWarnings("try")
+    public synchronized void stop() throws IOException {
+        if (!active) {
+            // a leased port is held from build time, so an instance that never ran still owns it
+            releaseLease();
+            return;
+        }
+
+        final String name = name();
+        startupStats.clearStopPhases();
+        try (final StartupStats.PhaseTimer timer = startupStats.time(name, STOP)) {
+            boolean exited = !process.isAlive();
+            if (!exited && !options.forceStop()) {
+                try (final StartupStats.PhaseTimer step = startupStats.time(name, STOP_SHUTDOWN_COMMAND)) {
+                    exited = requestShutdown() && process.waitFor(options.shutdownTimeoutMillis(), MILLISECONDS);
+                }
+                if (!exited) {
+                    try (final StartupStats.PhaseTimer step = startupStats.time(name, STOP_SIGTERM)) {
+                        process.destroy();
+                        exited = process.waitFor(options.terminateTimeoutMillis(), MILLISECONDS);
+                    }
+                }
+            }
+            if (!exited) {
+                try (final StartupStats.PhaseTimer step = startupStats.time(name, STOP_SIGKILL)) {
+                    exited = process.destroyForcibly().waitFor(options.killTimeoutMillis(), MILLISECONDS);
+                }
             }
+            if (!exited) throw new IOException("Redis process " + name + " did not exit after SIGKILL");
             active = false;
+            RUNNING.remove(this);
+            releaseLease();
+            if (!keepsWorkingDirectory()) {
+                ShutdownHooks.unregister(this);
+                deleteRecursively(workingDirectory);
+            }
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new IOException("Failed to stop redis service", e);
         }
     }
 
+    private boolean requestShutdown() {
+        final long pid = pidOf(process);
+        try (final RespClient client = new RespClient(primaryEndpoint(), 1000)) {
+            if (pid != -1 && !isProcess(client.call("INFO", "server"), pid)) return false;
+            client.send(options.shutdownMode().command).flush();
+            client.read();
+            return false;
+        } catch (EOFException e) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static Set<RedisInstance> running() {
+        return Collections.unmodifiableSet(RUNNING);
+    }
+
+    public long pid() {
+        final Process current = process;
+        return active && current != null ? pidOf(current) : -1;
+    }
+
+    public StartupStats startupStats() {
+        return startupStats;
+    }
+
+    public List<String> recentLog(final int lines) {
+        return logBuffer.last(lines);
+    }
+
+    public String tailLog(final int lines) {
+        return String.join(System.lineSeparator(), recentLog(lines));
+    }
+
+    protected String name() {
+        final Path socket = options.unixSocket();
+        return getClass().getSimpleName() + ":" + (port == 0 && socket != null ? socket.toAbsolutePath().toString() : port);
+    }
+
     public boolean isActive() {
         return active;
     }
 
+    public List<Endpoint> endpoints() {
+        final List<Endpoint> endpoints = new ArrayList<>(2);
+        if (options.unixSocket() != null) endpoints.add(Endpoint.unix(options.unixSocket()));
+        if (port != 0) endpoints.add(Endpoint.tcp(DEFAULT_HOST, port));
+        return endpoints;
+    }
+
+    private Endpoint primaryEndpoint() {
+        final List<Endpoint> endpoints = endpoints();
+        return endpoints.isEmpty() ? Endpoint.tcp(DEFAULT_HOST, port) : endpoints.get(0);
+    }
+
     public List<Integer> ports() {
-        return Collections.singletonList(port);
+        return port == 0 ? Collections.emptyList() : Collections.singletonList(port);
     }
 
 }
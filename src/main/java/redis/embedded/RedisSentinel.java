@@ -1,5 +1,6 @@
 package redis.embedded;
 
+import redis.embedded.core.LifecycleOptions;
 import redis.embedded.core.RedisSentinelBuilder;
 
 import java.util.List;
@@ -10,6 +11,10 @@ public final class RedisSentinel extends RedisInstance {
         super(port, args, SENTINEL_READY_PATTERN, forceStop);
     }
 
+    public RedisSentinel(final int port, final List<String> args, final LifecycleOptions options) {
+        super(port, args, SENTINEL_READY_PATTERN, options);
+    }
+
     public static RedisSentinelBuilder newRedisSentinel() { return new RedisSentinelBuilder(); }
 
 }
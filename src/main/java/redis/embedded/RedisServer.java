@@ -1,7 +1,11 @@
 package redis.embedded;
 
 import redis.embedded.core.ExecutableProvider;
+import redis.embedded.core.LifecycleOptions;
 import redis.embedded.core.RedisServerBuilder;
+import redis.embedded.model.Checkpoint;
+import redis.embedded.util.Keyspace;
+import redis.embedded.util.RespClient;
 
 import java.io.File;
 import java.io.IOException;
@@ -36,6 +40,30 @@ public final class RedisServer extends RedisInstance {
         super(port, args, SERVER_READY_PATTERN, forceStop);
     }
 
+    public RedisServer(final int port, final List<String> args, final LifecycleOptions options) {
+        super(port, args, SERVER_READY_PATTERN, options);
+    }
+
+    public void replicaOf(final String host, final int port) throws IOException {
+        try (final RespClient client = RespClient.connect(endpoints().get(0))) {
+            client.call("REPLICAOF", host, Integer.toString(port));
+        }
+    }
+
+    public void promoteToMaster() throws IOException {
+        try (final RespClient client = RespClient.connect(endpoints().get(0))) {
+            client.call("REPLICAOF", "NO", "ONE");
+        }
+    }
+
+    public Checkpoint checkpoint() throws IOException {
+        return Keyspace.checkpoint(endpoints().get(0));
+    }
+
+    public void restore(final Checkpoint checkpoint) throws IOException {
+        Keyspace.restore(endpoints().get(0), checkpoint);
+    }
+
     public static RedisServerBuilder newRedisServer() {
         return new RedisServerBuilder();
     }
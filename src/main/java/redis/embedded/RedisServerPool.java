@@ -0,0 +1,230 @@
+package redis.embedded;
+
+import redis.embedded.core.PortProvider;
+import redis.embedded.core.RedisServerBuilder;
+import redis.embedded.core.RedisServerPoolBuilder;
+import redis.embedded.model.PoolStats;
+import redis.embedded.util.RespClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.util.IO.newDaemonThreadFactory;
+
+public final class RedisServerPool implements Closeable {
+
+    private static final int MAX_CONSECUTIVE_START_FAILURES = 10;
+
+    private final RedisServerBuilder serverBuilder;
+    private final PortProvider portProvider;
+    private final int size;
+    private final int maxUses;
+    private final long leaseTimeoutMillis;
+
+    private final BlockingQueue<PooledServer> idle = new LinkedBlockingQueue<>();
+    private final Set<PooledServer> all = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private volatile boolean closed = false;
+    private volatile IOException lastStartFailure;
+    private final AtomicInteger consecutiveStartFailures = new AtomicInteger();
+
+    private final AtomicLong
+        leases = new AtomicLong(),
+        hits = new AtomicLong(),
+        misses = new AtomicLong(),
+        totalWaitNanos = new AtomicLong(),
+        maxWaitNanos = new AtomicLong(),
+        resets = new AtomicLong(),
+        recycled = new AtomicLong(),
+        startFailures = new AtomicLong();
+
+    public RedisServerPool(final RedisServerBuilder serverBuilder, final PortProvider portProvider, final int size,
+                           final int maxUses, final long leaseTimeoutMillis, final int startParallelism) {
+        this.serverBuilder = serverBuilder;
+        this.portProvider = portProvider;
+        this.size = size;
+        this.maxUses = maxUses;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.executor = Executors.newFixedThreadPool(startParallelism, newDaemonThreadFactory("RedisServerPool"));
+    }
+
+    public static RedisServerPoolBuilder newRedisServerPool() {
+        return new RedisServerPoolBuilder();
+    }
+
+    public RedisServerPool warmUp() {
+        for (int i = 0; i < size; i++) {
+            submit(this::startNewServer);
+        }
+        return this;
+    }
+
+    public Lease lease() throws IOException {
+        if (closed) throw new IllegalStateException("Redis server pool is closed");
+
+        final long begin = System.nanoTime();
+        PooledServer pooled = idle.poll();
+        if (pooled != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            try {
+                pooled = idle.poll(leaseTimeoutMillis, MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a pooled Redis server", e);
+            }
+            if (pooled == null)
+                throw new IOException("Timed out after " + leaseTimeoutMillis + "ms waiting for a pooled Redis server", lastStartFailure);
+        }
+
+        final long waited = System.nanoTime() - begin;
+        leases.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return new Lease(pooled);
+    }
+
+    public PoolStats stats() {
+        return new PoolStats(size, idle.size(), leases.get(), hits.get(), misses.get(), totalWaitNanos.get(),
+            maxWaitNanos.get(), resets.get(), recycled.get(), startFailures.get());
+    }
+
+    public void close() throws IOException {
+        closed = true;
+        executor.shutdownNow();
+        IOException failure = null;
+        for (final PooledServer pooled : all) {
+            try {
+                pooled.server.stop();
+                portProvider.release(pooled.port);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        all.clear();
+        idle.clear();
+        if (failure != null) throw failure;
+    }
+
+    private void release(final PooledServer pooled) {
+        if (closed) {
+            stopQuietly(pooled);
+            return;
+        }
+        if (!submit(() -> {
+            if (++pooled.uses >= maxUses || !reset(pooled)) {
+                recycled.incrementAndGet();
+                stopQuietly(pooled);
+                startNewServer();
+            } else {
+                resets.incrementAndGet();
+                offer(pooled);
+            }
+        })) stopQuietly(pooled);
+    }
+
+    private boolean submit(final Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private boolean reset(final PooledServer pooled) {
+        try (final RespClient client = RespClient.connect(pooled.port)) {
+            client.send("FLUSHALL").send("CONFIG", "RESETSTAT").send("SCRIPT", "FLUSH");
+            client.readOk();
+            client.readOk();
+            client.readOk();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void startNewServer() {
+        if (closed) return;
+        int port = -1;
+        try {
+            // Predefined providers iterate without a lock of their own
+            synchronized (portProvider) {
+                port = portProvider.get();
+            }
+            final RedisServer server = serverBuilder.copy().port(port).build();
+            server.start();
+            final PooledServer pooled = new PooledServer(server, port);
+            consecutiveStartFailures.set(0);
+            all.add(pooled);
+            offer(pooled);
+        } catch (IOException | RuntimeException e) {
+            if (port != -1) portProvider.release(port);
+            startFailures.incrementAndGet();
+            lastStartFailure = e instanceof IOException ? (IOException) e : new IOException(e);
+            if (!closed && consecutiveStartFailures.incrementAndGet() < MAX_CONSECUTIVE_START_FAILURES)
+                submit(this::startNewServer);
+        }
+    }
+
+    private void offer(final PooledServer pooled) {
+        if (closed) stopQuietly(pooled);
+        else idle.offer(pooled);
+    }
+
+    private void stopQuietly(final PooledServer pooled) {
+        all.remove(pooled);
+        try {
+            pooled.server.stop();
+            portProvider.release(pooled.port);
+        } catch (IOException e) {
+            /* eat quietly */
+        }
+    }
+
+    private static final class PooledServer {
+        private final RedisServer server;
+        private final int port;
+        private int uses;
+
+        private PooledServer(final RedisServer server, final int port) {
+            this.server = server;
+            this.port = port;
+        }
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final PooledServer pooled;
+        private boolean returned = false;
+
+        private Lease(final PooledServer pooled) {
+            this.pooled = pooled;
+        }
+
+        public RedisServer server() {
+            return pooled.server;
+        }
+
+        public int port() {
+            return pooled.port;
+        }
+
+        public List<Integer> ports() {
+            return pooled.server.ports();
+        }
+
+        public synchronized void close() {
+            if (returned) return;
+            returned = true;
+            release(pooled);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package redis.embedded;
+
+import redis.embedded.core.RedisShardedClusterBuilder;
+import redis.embedded.error.RespError;
+import redis.embedded.model.ClusterShard;
+import redis.embedded.model.StartupStats;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.*;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.util.ClusterSlots.slotOf;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+public final class RedisShardedCluster implements Redis {
+
+    private static final int ADDSLOTS_BATCH_SIZE = 1024;
+
+    private final Map<ClusterShard, List<RedisServer>> shards;
+    private final RedisCluster nodes;
+    private final long formationTimeoutMillis;
+
+    public RedisShardedCluster(final Map<ClusterShard, List<RedisServer>> shards, final long formationTimeoutMillis,
+                               final int parallelism) {
+        this.shards = new LinkedHashMap<>(shards);
+        this.formationTimeoutMillis = formationTimeoutMillis;
+        final Map<Redis, List<Redis>> independent = new LinkedHashMap<>();
+        for (final List<RedisServer> servers : shards.values()) {
+            for (final RedisServer server : servers) independent.put(server, Collections.emptyList());
+        }
+        this.nodes = new RedisCluster(Collections.emptyList(), independent, parallelism);
+    }
+
+    public static RedisShardedClusterBuilder newRedisShardedCluster() {
+        return new RedisShardedClusterBuilder();
+    }
+
+    @Override
+    public synchronized void start() throws IOException {
+        if (isActive()) return;
+        nodes.start();
+        try {
+            form();
+        } catch (IOException | RuntimeException e) {
+            try {
+                nodes.stop();
+            } catch (IOException stopFailure) {
+                e.addSuppressed(stopFailure);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void stop() throws IOException {
+        nodes.stop();
+    }
+
+    @Override
+    public boolean isActive() {
+        return nodes.isActive();
+    }
+
+    @Override
+    public List<Integer> ports() {
+        return nodes.serverPorts();
+    }
+
+    @Override
+    public StartupStats startupStats() {
+        return nodes.startupStats();
+    }
+
+    public List<ClusterShard> shards() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    public ClusterShard shardForSlot(final int slot) {
+        for (final ClusterShard shard : shards.keySet()) {
+            if (shard.owns(slot)) return shard;
+        }
+        throw new IllegalArgumentException("Slot " + slot + " is out of range");
+    }
+
+    public ClusterShard shardForKey(final String key) {
+        return shardForSlot(slotOf(key));
+    }
+
+    public List<RedisServer> servers(final ClusterShard shard) {
+        return new ArrayList<>(shards.get(shard));
+    }
+
+    public List<Integer> masterPorts() {
+        final List<Integer> ports = new ArrayList<>();
+        for (final ClusterShard shard : shards.keySet()) ports.add(shard.masterPort);
+        return ports;
+    }
+
+    private void form() throws IOException {
+        final long deadline = System.nanoTime() + MILLISECONDS.toNanos(formationTimeoutMillis);
+        final List<Integer> ports = ports();
+
+        for (final ClusterShard shard : shards.keySet()) {
+            assignSlots(shard);
+        }
+        try (final RespClient seed = RespClient.connect(ports.get(0))) {
+            for (final int port : ports.subList(1, ports.size())) {
+                seed.call("CLUSTER", "MEET", DEFAULT_HOST, Integer.toString(port));
+            }
+        }
+        awaitAll(deadline, "every node to know all " + ports.size() + " nodes", ports,
+            client -> knowsAllNodes(client, ports.size()));
+
+        for (final ClusterShard shard : shards.keySet()) {
+            if (shard.replicaPorts.isEmpty()) continue;
+            final String masterId = String.valueOf(RespClient.command(shard.masterPort, "CLUSTER", "MYID"));
+            for (final int replicaPort : shard.replicaPorts) {
+                RespClient.command(replicaPort, "CLUSTER", "REPLICATE", masterId);
+            }
+        }
+        awaitAll(deadline, "cluster_state:ok", ports,
+            client -> String.valueOf(client.call("CLUSTER", "INFO")).contains("cluster_state:ok"));
+        for (final ClusterShard shard : shards.keySet()) {
+            awaitAll(deadline, "replicas of " + shard.masterPort + " to sync", shard.replicaPorts,
+                client -> String.valueOf(client.call("INFO", "replication")).contains("master_link_status:up"));
+        }
+    }
+
+    private static void assignSlots(final ClusterShard shard) throws IOException {
+        try (final RespClient client = RespClient.connect(shard.masterPort)) {
+            try {
+                client.call("CLUSTER", "ADDSLOTSRANGE", Integer.toString(shard.firstSlot), Integer.toString(shard.lastSlot));
+                return;
+            } catch (RespError e) {
+                if (!e.getMessage().toLowerCase(Locale.ROOT).contains("unknown subcommand")) throw e;
+            }
+            for (int from = shard.firstSlot; from <= shard.lastSlot; from += ADDSLOTS_BATCH_SIZE) {
+                final int to = Math.min(shard.lastSlot, from + ADDSLOTS_BATCH_SIZE - 1);
+                final String[] args = new String[2 + to - from + 1];
+                args[0] = "CLUSTER";
+                args[1] = "ADDSLOTS";
+                for (int slot = from; slot <= to; slot++) args[2 + slot - from] = Integer.toString(slot);
+                client.call(args);
+            }
+        }
+    }
+
+    private static boolean knowsAllNodes(final RespClient client, final int nodeCount) throws IOException {
+        final String[] lines = String.valueOf(client.call("CLUSTER", "NODES")).trim().split("\n");
+        if (lines.length != nodeCount) return false;
+        for (final String line : lines) {
+            if (line.contains("handshake") || line.contains("noaddr")) return false;
+        }
+        return true;
+    }
+
+    private static void awaitAll(final long deadline, final String condition, final List<Integer> ports,
+                                 final NodeCondition check) throws IOException {
+        long backoff = 5;
+        final Set<Integer> pending = new LinkedHashSet<>(ports);
+        while (true) {
+            for (final Iterator<Integer> it = pending.iterator(); it.hasNext(); ) {
+                try (final RespClient client = RespClient.connect(it.next())) {
+                    if (check.test(client)) it.remove();
+                } catch (IOException e) {
+                    /* not there yet */
+                }
+            }
+            if (pending.isEmpty()) return;
+            if (System.nanoTime() > deadline)
+                throw new IOException("Timed out waiting for " + condition + ", still waiting on ports " + pending);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for " + condition, e);
+            }
+            backoff = Math.min(backoff * 2, 100);
+        }
+    }
+
+    private interface NodeCondition {
+        boolean test(RespClient client) throws IOException;
+    }
+
+}
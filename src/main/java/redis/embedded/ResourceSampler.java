@@ -0,0 +1,229 @@
+package redis.embedded;
+
+import redis.embedded.core.ResourceSamplerBuilder;
+import redis.embedded.core.SampleListener;
+import redis.embedded.model.Endpoint;
+import redis.embedded.model.ResourceSample;
+import redis.embedded.util.RespClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.util.IO.newDaemonThreadFactory;
+
+/**
+ * Samples every running instance from one background thread. Process figures come from {@code /proc/<pid>}, server
+ * figures from one pipelined round trip of {@code INFO stats}, {@code INFO memory} and {@code INFO clients} over a
+ * connection that is kept open between samples.
+ */
+public final class ResourceSampler implements Closeable {
+
+    private static final long CLOCK_TICK_NANOS = 10_000_000L;
+    private static final Path PROC = Paths.get("/proc");
+
+    private final long intervalMillis;
+    private final boolean sampleInfo;
+    private final int infoEvery;
+    private final int timeoutMillis;
+    private final SampleListener listener;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(newDaemonThreadFactory("ResourceSampler"));
+    private final Map<RedisInstance, State> states = new HashMap<>();
+
+    public ResourceSampler(final long intervalMillis, final boolean sampleInfo, final int infoEvery,
+                           final int timeoutMillis, final SampleListener listener) {
+        this.intervalMillis = intervalMillis;
+        this.sampleInfo = sampleInfo;
+        this.infoEvery = infoEvery;
+        this.timeoutMillis = timeoutMillis;
+        this.listener = listener;
+    }
+
+    public static ResourceSamplerBuilder newResourceSampler() {
+        return new ResourceSamplerBuilder();
+    }
+
+    public ResourceSampler start() {
+        scheduler.scheduleWithFixedDelay(this::sampleQuietly, 0, intervalMillis, MILLISECONDS);
+        return this;
+    }
+
+    /** Takes a sample of every running instance right away and returns it, on top of the scheduled ones. */
+    public List<ResourceSample> sampleNow() throws IOException {
+        try {
+            return scheduler.submit(this::sampleAll).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sampling", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Sampling failed", e.getCause());
+        }
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(timeoutMillis, MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (final State state : states.values()) state.disconnect();
+        states.clear();
+    }
+
+    private void sampleQuietly() {
+        try {
+            sampleAll();
+        } catch (RuntimeException e) {
+            /* a misbehaving listener must not end the schedule */
+        }
+    }
+
+    private List<ResourceSample> sampleAll() {
+        final Set<RedisInstance> running = RedisInstance.running();
+        final Iterator<Map.Entry<RedisInstance, State>> known = states.entrySet().iterator();
+        while (known.hasNext()) {
+            final Map.Entry<RedisInstance, State> entry = known.next();
+            if (!running.contains(entry.getKey())) {
+                entry.getValue().disconnect();
+                known.remove();
+            }
+        }
+
+        final List<ResourceSample> samples = new ArrayList<>(running.size());
+        for (final RedisInstance instance : running) {
+            final ResourceSample sample = sample(instance, states.computeIfAbsent(instance, i -> new State()));
+            if (sample == null) continue;
+            samples.add(sample);
+            listener.accept(sample);
+        }
+        return samples;
+    }
+
+    private ResourceSample sample(final RedisInstance instance, final State state) {
+        final long pid = instance.pid();
+        if (pid == -1) return null;
+
+        final long now = System.nanoTime();
+        final long rss = readRss(pid);
+        final long cpu = readCpuTime(pid);
+        final double utilization = state.lastCpuNanos < 0 || cpu < 0 || now == state.lastSampleNanos ? Double.NaN
+            : (double) (cpu - state.lastCpuNanos) / (now - state.lastSampleNanos);
+        state.lastCpuNanos = cpu;
+        state.lastSampleNanos = now;
+
+        if (sampleInfo && state.tick++ % infoEvery == 0) readInfo(instance, state);
+        return new ResourceSample(instance.name(), pid, System.currentTimeMillis(), rss, cpu, utilization,
+            state.opsPerSecond, state.usedMemory, state.connectedClients, state.keyspaceHits, state.keyspaceMisses);
+    }
+
+    private void readInfo(final RedisInstance instance, final State state) {
+        try {
+            if (state.client == null) {
+                final List<Endpoint> endpoints = instance.endpoints();
+                if (endpoints.isEmpty()) return;
+                state.client = new RespClient(endpoints.get(0), timeoutMillis);
+            }
+            state.client.send("INFO", "stats").send("INFO", "memory").send("INFO", "clients");
+            final String stats = String.valueOf(state.client.read());
+            final String memory = String.valueOf(state.client.read());
+            final String clients = String.valueOf(state.client.read());
+            state.opsPerSecond = infoField(stats, "instantaneous_ops_per_sec");
+            state.keyspaceHits = infoField(stats, "keyspace_hits");
+            state.keyspaceMisses = infoField(stats, "keyspace_misses");
+            state.usedMemory = infoField(memory, "used_memory");
+            // Leave out the sampler's own connection
+            final long connected = infoField(clients, "connected_clients");
+            state.connectedClients = connected < 0 ? -1 : Math.max(0, connected - 1);
+        } catch (IOException e) {
+            state.disconnect();
+        }
+    }
+
+    static long infoField(final String info, final String field) {
+        final String prefix = field + ':';
+        final int line = info.startsWith(prefix) ? 0 : info.indexOf('\n' + prefix) + 1;
+        if (line == 0 && !info.startsWith(prefix)) return -1;
+        final int start = line + prefix.length();
+        int end = start;
+        while (end < info.length() && Character.isDigit(info.charAt(end))) end++;
+        return end == start ? -1 : Long.parseLong(info.substring(start, end));
+    }
+
+    private static long readRss(final long pid) {
+        final String status = readProc(pid, "status");
+        final long kilobytes = status == null ? -1 : procField(status, "VmRSS:");
+        return kilobytes < 0 ? -1 : kilobytes * 1024;
+    }
+
+    // schedstat has nanosecond precision; stat only clock ticks, assumed to be the usual 100 Hz
+    private static long readCpuTime(final long pid) {
+        final String schedstat = readProc(pid, "schedstat");
+        if (schedstat != null) {
+            final int space = schedstat.indexOf(' ');
+            try {
+                return Long.parseLong(space == -1 ? schedstat.trim() : schedstat.substring(0, space));
+            } catch (NumberFormatException e) {
+                /* fall back to stat */
+            }
+        }
+        final String stat = readProc(pid, "stat");
+        if (stat == null) return -1;
+        final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        if (fields.length < 13) return -1;
+        try {
+            return (Long.parseLong(fields[11]) + Long.parseLong(fields[12])) * CLOCK_TICK_NANOS;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long procField(final String content, final String name) {
+        final int index = content.indexOf(name);
+        if (index == -1) return -1;
+        int start = index + name.length();
+        while (start < content.length() && !Character.isDigit(content.charAt(start))) start++;
+        int end = start;
+        while (end < content.length() && Character.isDigit(content.charAt(end))) end++;
+        return end == start ? -1 : Long.parseLong(content.substring(start, end));
+    }
+
+    private static String readProc(final long pid, final String file) {
+        try {
+            return new String(Files.readAllBytes(PROC.resolve(Long.toString(pid)).resolve(file)), US_ASCII);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class State {
+        private RespClient client;
+        private int tick;
+        private long lastCpuNanos = -1;
+        private long lastSampleNanos;
+        private long opsPerSecond = -1;
+        private long usedMemory = -1;
+        private long connectedClients = -1;
+        private long keyspaceHits = -1;
+        private long keyspaceMisses = -1;
+
+        private void disconnect() {
+            if (client == null) return;
+            try {
+                client.close();
+            } catch (IOException e) {
+                /* eat quietly */
+            }
+            client = null;
+        }
+    }
+
+}
@@ -0,0 +1,387 @@
+package redis.embedded;
+
+import redis.embedded.core.SharedRedisBuilder;
+import redis.embedded.model.Endpoint;
+import redis.embedded.util.RespClient;
+import redis.embedded.util.ShutdownHooks;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.core.ReadinessStrategy.answersPing;
+import static redis.embedded.util.IO.deleteRecursively;
+import static redis.embedded.util.IO.newDaemonThreadFactory;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+/**
+ * A server or cluster shared by every JVM that attaches under the same name, such as the forks of one test run. The
+ * first JVM starts it and records it in {@code <name>.properties} in a shared directory, guarded by a lock on
+ * {@code <name>.lock}; later JVMs attach to what is recorded there. Every attachment holds a lease it renews with a
+ * heartbeat. Whoever detaches last, or finds all other leases expired, shuts the instance down. An instance whose
+ * leases all expired, because the last JVM was killed, is shut down and replaced by the next JVM to attach. Nothing
+ * outside the attached JVMs watches it, so until that happens it keeps running. Attachments get their own database
+ * index and key prefix so forks do not see each other's keys.
+ */
+public final class SharedRedis implements Closeable {
+
+    public static final String
+        ENVIRONMENT_SHARED_DIRECTORY = "EMBEDDED_REDIS_SHARED_DIR",
+        PROPERTY_SHARED_DIRECTORY = "embedded.redis.shared.dir";
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000L;
+    private static final ConcurrentMap<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService HEARTBEATS =
+        Executors.newSingleThreadScheduledExecutor(newDaemonThreadFactory("SharedRedisHeartbeat"));
+
+    public interface Factory {
+        Redis build() throws IOException;
+    }
+
+    private final String name;
+    private final Path lockFile;
+    private final Path registryFile;
+    private final String user = UUID.randomUUID().toString();
+    private final long leaseExpiryMillis;
+    private final Redis owned;
+    private final Registry attached;
+    private final int slot;
+    private final ScheduledFuture<?> heartbeat;
+    private boolean closed = false;
+
+    private SharedRedis(final Path directory, final String name, final Factory factory, final long heartbeatMillis,
+                        final long leaseExpiryMillis) throws IOException {
+        this.name = name;
+        this.lockFile = directory.resolve(name + ".lock");
+        this.registryFile = directory.resolve(name + ".properties");
+        this.leaseExpiryMillis = leaseExpiryMillis;
+
+        Files.createDirectories(directory);
+        final Redis[] started = new Redis[1];
+        this.attached = locked(() -> {
+            Registry registry = Registry.load(registryFile);
+            if (registry != null) registry.expire(System.currentTimeMillis() - leaseExpiryMillis);
+            // Without a single live lease the last JVM died attached, so whatever it left behind is not reused
+            if (registry != null && (registry.users.isEmpty() || !registry.isAlive())) {
+                tearDown(registry, null);
+                registry = null;
+            }
+            if (registry == null) {
+                started[0] = factory.build();
+                started[0].start();
+                try {
+                    registry = Registry.of(started[0]);
+                } catch (IOException | RuntimeException e) {
+                    started[0].stop();
+                    throw e;
+                }
+            }
+            registry.expire(System.currentTimeMillis() - leaseExpiryMillis);
+            registry.users.put(user, new Lease(registry.freeSlot(), System.currentTimeMillis()));
+            registry.store(registryFile);
+            return registry;
+        });
+        this.owned = started[0];
+        this.slot = attached.users.get(user).slot;
+        this.heartbeat = HEARTBEATS.scheduleWithFixedDelay(this::renew, heartbeatMillis, heartbeatMillis, MILLISECONDS);
+        ShutdownHooks.register(this, this::close);
+    }
+
+    public static SharedRedisBuilder newSharedRedis() {
+        return new SharedRedisBuilder();
+    }
+
+    public static SharedRedis attach(final Path directory, final String name, final Factory factory,
+                                     final long heartbeatMillis, final long leaseExpiryMillis) throws IOException {
+        return new SharedRedis(directory.toAbsolutePath(), name, factory, heartbeatMillis, leaseExpiryMillis);
+    }
+
+    public static Path defaultSharedDirectory() {
+        final String property = System.getProperty(PROPERTY_SHARED_DIRECTORY);
+        if (property != null && !property.isEmpty()) return Paths.get(property);
+        final String environment = System.getenv(ENVIRONMENT_SHARED_DIRECTORY);
+        if (environment != null && !environment.isEmpty()) return Paths.get(environment);
+        return Paths.get(System.getProperty("java.io.tmpdir"), "embedded-redis-shared");
+    }
+
+    /** True when this attachment started the instance. */
+    public boolean isOwner() {
+        return owned != null;
+    }
+
+    public int port() {
+        return ports().get(0);
+    }
+
+    public List<Integer> ports() {
+        return new ArrayList<>(attached.servers.keySet());
+    }
+
+    public List<Integer> sentinelPorts() {
+        return new ArrayList<>(attached.sentinels.keySet());
+    }
+
+    public List<Endpoint> endpoints() {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (final int port : attached.servers.keySet()) endpoints.add(Endpoint.tcp(DEFAULT_HOST, port));
+        return endpoints;
+    }
+
+    /** Database index for this attachment. Attachments share one once there are more than the server has databases. */
+    public int database() {
+        return slot % attached.databases;
+    }
+
+    /** Key prefix unique among the current attachments, for clusters and other setups that only use database 0. */
+    public String keyPrefix() {
+        return name + ":" + slot + ":";
+    }
+
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        heartbeat.cancel(false);
+        ShutdownHooks.unregister(this);
+        locked(() -> {
+            final Registry registry = Registry.load(registryFile);
+            if (registry == null || !registry.servers.equals(attached.servers)) {
+                // Another JVM already shut the instance down; only the process handle is left to clean up
+                if (owned != null) owned.stop();
+                return null;
+            }
+            registry.users.remove(user);
+            registry.expire(System.currentTimeMillis() - leaseExpiryMillis);
+            if (registry.users.isEmpty()) {
+                tearDown(registry, owned);
+                Files.deleteIfExists(registryFile);
+            } else {
+                registry.store(registryFile);
+            }
+            return null;
+        });
+    }
+
+    // Also brings back a lease that expired while this JVM was stalled, as long as the instance is still there
+    private void renew() {
+        try {
+            locked(() -> {
+                final Registry registry = Registry.load(registryFile);
+                if (registry == null || !registry.servers.equals(attached.servers)) return null;
+                registry.expire(System.currentTimeMillis() - leaseExpiryMillis);
+                if (!registry.users.containsKey(user) && registry.isTaken(slot)) return null;
+                registry.users.put(user, new Lease(slot, System.currentTimeMillis()));
+                registry.store(registryFile);
+                return null;
+            });
+        } catch (IOException e) {
+            /* try again on the next beat */
+        }
+    }
+
+    @SuppressWarnings("try")
+    private <T> T locked(final LockedAction<T> action) throws IOException {
+        synchronized (JVM_LOCKS.computeIfAbsent(lockFile, key -> new Object())) {
+            try (final FileChannel channel = FileChannel.open(lockFile, CREATE, WRITE);
+                 final FileLock ignored = channel.lock()) {
+                return action.run();
+            }
+        }
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    // The JVM that started the instance stops it through its process handle, any other one over the wire
+    private static void tearDown(final Registry registry, final Redis owned) throws IOException {
+        if (owned != null && owned.isActive() && registry.servers.keySet().containsAll(owned.ports())) {
+            owned.stop();
+        } else {
+            final Map<Integer, Long> instances = new LinkedHashMap<>(registry.sentinels);
+            instances.putAll(registry.servers);
+            for (final Map.Entry<Integer, Long> instance : instances.entrySet()) {
+                if (answersPing(instance.getKey(), instance.getValue())) shutdownNoSave(instance.getKey());
+            }
+            awaitShutdown(instances);
+        }
+        for (final Path directory : registry.directories) deleteRecursively(directory);
+    }
+
+    private static void shutdownNoSave(final int port) {
+        try (final RespClient client = RespClient.connect(port)) {
+            client.send("SHUTDOWN", "NOSAVE").flush();
+            client.read();
+        } catch (IOException e) {
+            /* the connection closing is the answer */
+        }
+    }
+
+    private static void awaitShutdown(final Map<Integer, Long> instances) throws IOException {
+        final long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        for (final Map.Entry<Integer, Long> instance : instances.entrySet()) {
+            while (answersPing(instance.getKey(), instance.getValue())) {
+                if (System.currentTimeMillis() > deadline)
+                    throw new IOException("Shared Redis on port " + instance.getKey() + " did not shut down");
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while shutting down shared Redis", e);
+                }
+            }
+        }
+    }
+
+    private static final class Lease {
+        private final int slot;
+        private final long heartbeat;
+
+        private Lease(final int slot, final long heartbeat) {
+            this.slot = slot;
+            this.heartbeat = heartbeat;
+        }
+    }
+
+    private static final class Registry {
+        private static final String
+            SERVERS = "servers",
+            SENTINELS = "sentinels",
+            DIRECTORIES = "directories",
+            DATABASES = "databases",
+            USER_PREFIX = "user.";
+
+        private final Map<Integer, Long> servers = new LinkedHashMap<>();
+        private final Map<Integer, Long> sentinels = new LinkedHashMap<>();
+        private final List<Path> directories = new ArrayList<>();
+        private final Map<String, Lease> users = new HashMap<>();
+        private int databases = 16;
+
+        // The instances stop with this JVM unless they are taken out of its shutdown hook
+        private static Registry of(final Redis redis) throws IOException {
+            final Registry registry = new Registry();
+            if (redis instanceof RedisCluster) {
+                for (final Redis sentinel : ((RedisCluster) redis).sentinels()) registry.add(registry.sentinels, sentinel);
+                for (final Redis server : ((RedisCluster) redis).servers()) registry.add(registry.servers, server);
+            } else {
+                registry.add(registry.servers, redis);
+            }
+            final Object reply = RespClient.command(registry.servers.keySet().iterator().next(), "CONFIG", "GET", "databases");
+            if (reply instanceof List && ((List<?>) reply).size() == 2)
+                registry.databases = Integer.parseInt(String.valueOf(((List<?>) reply).get(1)));
+            return registry;
+        }
+
+        private void add(final Map<Integer, Long> instances, final Redis redis) {
+            if (redis instanceof RedisInstance) {
+                final RedisInstance instance = (RedisInstance) redis;
+                ShutdownHooks.unregister(instance);
+                instances.put(instance.ports().get(0), instance.pid());
+                directories.add(instance.workingDirectory());
+            } else {
+                for (final int port : redis.ports()) instances.put(port, -1L);
+            }
+        }
+
+        private boolean isAlive() {
+            for (final Map.Entry<Integer, Long> server : servers.entrySet()) {
+                if (!answersPing(server.getKey(), server.getValue())) return false;
+            }
+            return !servers.isEmpty();
+        }
+
+        private void expire(final long before) {
+            users.values().removeIf(lease -> lease.heartbeat < before);
+        }
+
+        private int freeSlot() {
+            int slot = 0;
+            while (isTaken(slot)) slot++;
+            return slot;
+        }
+
+        private boolean isTaken(final int slot) {
+            for (final Lease lease : users.values()) {
+                if (lease.slot == slot) return true;
+            }
+            return false;
+        }
+
+        private static Registry load(final Path file) throws IOException {
+            if (!Files.isRegularFile(file)) return null;
+            final Properties properties = new Properties();
+            try (final Reader reader = Files.newBufferedReader(file, UTF_8)) {
+                properties.load(reader);
+            }
+            final Registry registry = new Registry();
+            parseInstances(properties.getProperty(SERVERS, ""), registry.servers);
+            parseInstances(properties.getProperty(SENTINELS, ""), registry.sentinels);
+            for (final String directory : properties.getProperty(DIRECTORIES, "").split(File.pathSeparator)) {
+                if (!directory.isEmpty()) registry.directories.add(Paths.get(directory));
+            }
+            registry.databases = Integer.parseInt(properties.getProperty(DATABASES, "16"));
+            for (final String key : properties.stringPropertyNames()) {
+                if (!key.startsWith(USER_PREFIX)) continue;
+                final String[] lease = properties.getProperty(key).split(",");
+                registry.users.put(key.substring(USER_PREFIX.length()),
+                    new Lease(Integer.parseInt(lease[0]), Long.parseLong(lease[1])));
+            }
+            return registry;
+        }
+
+        private void store(final Path file) throws IOException {
+            final Properties properties = new Properties();
+            properties.setProperty(SERVERS, formatInstances(servers));
+            properties.setProperty(SENTINELS, formatInstances(sentinels));
+            final StringJoiner paths = new StringJoiner(File.pathSeparator);
+            for (final Path directory : directories) paths.add(directory.toString());
+            properties.setProperty(DIRECTORIES, paths.toString());
+            properties.setProperty(DATABASES, Integer.toString(databases));
+            for (final Map.Entry<String, Lease> user : users.entrySet()) {
+                properties.setProperty(USER_PREFIX + user.getKey(), user.getValue().slot + "," + user.getValue().heartbeat);
+            }
+
+            final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (final Writer writer = Files.newBufferedWriter(temp, UTF_8)) {
+                    properties.store(writer, "embedded-redis shared instance");
+                }
+                try {
+                    Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private static void parseInstances(final String value, final Map<Integer, Long> instances) {
+            for (final String instance : value.split(",")) {
+                if (instance.isEmpty()) continue;
+                final int colon = instance.indexOf(':');
+                instances.put(Integer.parseInt(instance.substring(0, colon)), Long.parseLong(instance.substring(colon + 1)));
+            }
+        }
+
+        private static String formatInstances(final Map<Integer, Long> instances) {
+            final StringJoiner joiner = new StringJoiner(",");
+            for (final Map.Entry<Integer, Long> instance : instances.entrySet()) {
+                joiner.add(instance.getKey() + ":" + instance.getValue());
+            }
+            return joiner.toString();
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package redis.embedded.bench;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/** Latencies are in nanoseconds and, for open-loop runs, measured from when a request was due rather than sent. */
+public final class BenchResult {
+    public final LoadGenerator.Mode mode;
+    public final int connections;
+    public final int pipelineDepth;
+    public final long operations;
+    public final long errors;
+    public final long durationNanos;
+    public final LatencyHistogram latencies;
+
+    public BenchResult(final LoadGenerator.Mode mode, final int connections, final int pipelineDepth,
+                       final long operations, final long errors, final long durationNanos,
+                       final LatencyHistogram latencies) {
+        this.mode = mode;
+        this.connections = connections;
+        this.pipelineDepth = pipelineDepth;
+        this.operations = operations;
+        this.errors = errors;
+        this.durationNanos = durationNanos;
+        this.latencies = latencies;
+    }
+
+    public double throughput() {
+        return durationNanos == 0 ? 0 : operations * (double) SECONDS.toNanos(1) / durationNanos;
+    }
+
+    public double percentileMicros(final double percentile) {
+        return latencies.percentile(percentile) / 1000.0;
+    }
+
+    public String toString() {
+        return String.format("%s %d connections x depth %d: %d ops in %d ms (%.0f ops/s, %d errors), "
+                + "latency us p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+            mode, connections, pipelineDepth, operations, NANOSECONDS.toMillis(durationNanos), throughput(), errors,
+            percentileMicros(50), percentileMicros(90), percentileMicros(99), percentileMicros(99.9),
+            latencies.max() / 1000.0);
+    }
+}
@@ -0,0 +1,38 @@
+package redis.embedded.bench;
+
+import java.util.SplittableRandom;
+
+/** Picks the index of the next key out of a keyspace of the given size. */
+public interface KeyDistribution {
+
+    long next(SplittableRandom random);
+
+    static KeyDistribution uniform(final long keyspace) {
+        if (keyspace < 1) throw new IllegalArgumentException("Keyspace must hold at least one key");
+        return random -> random.nextLong(keyspace);
+    }
+
+    static KeyDistribution zipfian(final long keyspace) {
+        return zipfian(keyspace, 0.99);
+    }
+    // The generator from Gray et al., "Quickly generating billion-record synthetic databases", as used by YCSB
+    static KeyDistribution zipfian(final long keyspace, final double theta) {
+        if (keyspace < 2) throw new IllegalArgumentException("A zipfian keyspace needs at least two keys");
+        if (theta <= 0 || theta >= 1) throw new IllegalArgumentException("Zipfian theta must be between 0 and 1");
+        double zetaN = 0;
+        for (long i = 1; i <= keyspace; i++) zetaN += 1 / Math.pow(i, theta);
+        final double zeta = zetaN;
+        final double zeta2 = 1 + 1 / Math.pow(2, theta);
+        final double alpha = 1 / (1 - theta);
+        final double eta = (1 - Math.pow(2.0 / keyspace, 1 - theta)) / (1 - zeta2 / zeta);
+        final double secondThreshold = 1 + Math.pow(0.5, theta);
+        return random -> {
+            final double u = random.nextDouble();
+            final double uz = u * zeta;
+            if (uz < 1) return 0;
+            if (uz < secondThreshold) return 1;
+            return Math.min(keyspace - 1, (long) (keyspace * Math.pow(eta * u - eta + 1, alpha)));
+        };
+    }
+
+}
@@ -0,0 +1,94 @@
+package redis.embedded.bench;
+
+/**
+ * Log-linear latency histogram in the spirit of HdrHistogram: every power of two is split into 128 linear buckets,
+ * so recorded values keep better than 1% precision from nanoseconds up to hours in a fixed 58 KB array. Not thread
+ * safe; each load generator connection records into its own and the results are merged.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKET_COUNT + (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    public void record(final long value) {
+        final long clamped = Math.max(0, value);
+        counts[indexOf(clamped)]++;
+        total++;
+        sum += clamped;
+        if (clamped < min) min = clamped;
+        if (clamped > max) max = clamped;
+    }
+
+    /**
+     * Records the value and, when it took longer than the expected interval between requests, the requests that a
+     * stalled closed-loop client would have sent in the meantime. Same correction as HdrHistogram's
+     * {@code recordValueWithExpectedInterval}.
+     */
+    public void recordCorrected(final long value, final long expectedInterval) {
+        record(value);
+        if (expectedInterval <= 0) return;
+        for (long missed = value - expectedInterval; missed >= expectedInterval; missed -= expectedInterval) {
+            record(missed);
+        }
+    }
+
+    public LatencyHistogram merge(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        if (other.total > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        return this;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long min() {
+        return total == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /** The value at the given percentile (0-100), reported as the highest value of its bucket like HdrHistogram. */
+    public long percentile(final double percentile) {
+        if (total == 0) return 0;
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, highestEquivalent(i));
+        }
+        return max;
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) return (int) value;
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    static long highestEquivalent(final int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        final int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        final long lowest = (long) ((index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
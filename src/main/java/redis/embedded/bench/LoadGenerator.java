@@ -0,0 +1,234 @@
+package redis.embedded.bench;
+
+import redis.embedded.Redis;
+import redis.embedded.RedisCluster;
+import redis.embedded.error.RespError;
+import redis.embedded.model.Endpoint;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static redis.embedded.util.IO.newDaemonThreadFactory;
+import static redis.embedded.util.IO.newPerTaskExecutor;
+import static redis.embedded.util.IO.toIOException;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+/**
+ * Drives one or more Redis endpoints with a {@link Workload} and reports throughput and latency percentiles.
+ * <p>
+ * Closed-loop runs send the next batch as soon as the previous one is answered, which finds the maximum throughput
+ * but hides stalls; pass an expected interval to correct for that the way HdrHistogram does. Open-loop runs send at
+ * a fixed rate and measure every request from the moment it was due, so a stall shows up in the latencies of every
+ * request that should have been sent during it.
+ */
+public final class LoadGenerator {
+
+    public enum Mode { CLOSED_LOOP, OPEN_LOOP }
+
+    private final List<Endpoint> targets;
+    private Workload workload = Workload.newWorkload();
+    private int connections = 4;
+    private int pipelineDepth = 1;
+    private long warmupMillis = 1000L;
+    private long durationMillis = 5000L;
+    private Mode mode = Mode.CLOSED_LOOP;
+    private double operationsPerSecond;
+    private long expectedIntervalNanos;
+    private boolean virtualThreads = true;
+    private int timeoutMillis = RespClient.DEFAULT_TIMEOUT_MILLIS;
+    private long seed = System.nanoTime();
+
+    private LoadGenerator(final List<Endpoint> targets) {
+        if (targets.isEmpty()) throw new IllegalArgumentException("Nothing to send load to");
+        this.targets = new ArrayList<>(targets);
+    }
+
+    /** Targets a single server, or every server (not sentinel) of a {@link RedisCluster}. */
+    public static LoadGenerator newLoadGenerator(final Redis redis) {
+        if (redis instanceof RedisCluster) {
+            final List<Endpoint> servers = new ArrayList<>();
+            for (final int port : ((RedisCluster) redis).serverPorts()) servers.add(Endpoint.tcp(DEFAULT_HOST, port));
+            return new LoadGenerator(servers);
+        }
+        final List<Endpoint> endpoints = redis.endpoints();
+        return new LoadGenerator(endpoints.isEmpty() ? endpoints : endpoints.subList(0, 1));
+    }
+
+    public static LoadGenerator newLoadGenerator(final List<Endpoint> targets) {
+        return new LoadGenerator(targets);
+    }
+
+    public LoadGenerator workload(final Workload workload) {
+        this.workload = workload;
+        return this;
+    }
+
+    public LoadGenerator connections(final int connections) {
+        if (connections < 1) throw new IllegalArgumentException("Need at least one connection");
+        this.connections = connections;
+        return this;
+    }
+
+    public LoadGenerator pipelineDepth(final int pipelineDepth) {
+        if (pipelineDepth < 1) throw new IllegalArgumentException("Pipeline depth must be at least 1");
+        this.pipelineDepth = pipelineDepth;
+        return this;
+    }
+
+    public LoadGenerator warmupMilliseconds(final long warmupMillis) {
+        this.warmupMillis = warmupMillis;
+        return this;
+    }
+
+    public LoadGenerator durationMilliseconds(final long durationMillis) {
+        if (durationMillis < 1) throw new IllegalArgumentException("Duration must be at least 1ms");
+        this.durationMillis = durationMillis;
+        return this;
+    }
+
+    public LoadGenerator closedLoop() {
+        return closedLoop(0);
+    }
+    public LoadGenerator closedLoop(final long expectedIntervalNanos) {
+        this.mode = Mode.CLOSED_LOOP;
+        this.expectedIntervalNanos = expectedIntervalNanos;
+        return this;
+    }
+
+    public LoadGenerator openLoop(final double operationsPerSecond) {
+        if (operationsPerSecond <= 0) throw new IllegalArgumentException("Open-loop rate must be positive");
+        this.mode = Mode.OPEN_LOOP;
+        this.operationsPerSecond = operationsPerSecond;
+        return this;
+    }
+
+    public LoadGenerator virtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public LoadGenerator timeoutMilliseconds(final int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    public LoadGenerator seed(final long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public BenchResult run() throws IOException {
+        final List<RespClient> clients = new ArrayList<>(connections);
+        final ExecutorService executor = newWorkerExecutor();
+        try {
+            for (int i = 0; i < connections; i++) {
+                clients.add(new RespClient(targets.get(i % targets.size()), timeoutMillis));
+            }
+
+            final long start = System.nanoTime();
+            final long measureFrom = start + MILLISECONDS.toNanos(warmupMillis);
+            final long end = measureFrom + MILLISECONDS.toNanos(durationMillis);
+            final List<Future<Worker>> futures = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                futures.add(executor.submit(new Worker(i, clients.get(i), start, measureFrom, end)));
+            }
+
+            final LatencyHistogram latencies = new LatencyHistogram();
+            long operations = 0, errors = 0;
+            for (final Future<Worker> future : futures) {
+                final Worker worker = await(future);
+                latencies.merge(worker.latencies);
+                operations += worker.operations;
+                errors += worker.errors;
+            }
+            return new BenchResult(mode, connections, pipelineDepth, operations, errors, end - measureFrom, latencies);
+        } finally {
+            executor.shutdownNow();
+            for (final RespClient client : clients) client.close();
+        }
+    }
+
+    // parkNanos may return early, so a batch would otherwise be sent ahead of its schedule
+    private static void parkUntil(final long deadlineNanos) {
+        for (long wait = deadlineNanos - System.nanoTime(); wait > 0 && !Thread.currentThread().isInterrupted();
+             wait = deadlineNanos - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static Worker await(final Future<Worker> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the load generator", e);
+        } catch (ExecutionException e) {
+            throw toIOException(e.getCause());
+        }
+    }
+
+    private ExecutorService newWorkerExecutor() {
+        return virtualThreads ? newPerTaskExecutor("LoadGenerator")
+            : Executors.newFixedThreadPool(connections, newDaemonThreadFactory("LoadGenerator"));
+    }
+
+    private final class Worker implements Callable<Worker> {
+        private final RespClient client;
+        private final Workload.Generator generator;
+        private final long start, measureFrom, end, intervalNanos;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long operations, errors;
+
+        private Worker(final int index, final RespClient client, final long start, final long measureFrom, final long end) {
+            this.client = client;
+            this.generator = workload.newGenerator(seed + index);
+            this.intervalNanos = mode == Mode.OPEN_LOOP
+                ? (long) (SECONDS.toNanos(1) * (double) pipelineDepth * connections / operationsPerSecond) : 0;
+            // Spread the connections over the interval instead of firing them all at once
+            this.start = start + (connections == 0 ? 0 : intervalNanos * index / connections);
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        public Worker call() throws IOException {
+            long due = start;
+            while (!Thread.currentThread().isInterrupted()) {
+                final long batchStart;
+                if (mode == Mode.OPEN_LOOP) {
+                    parkUntil(due);
+                    batchStart = due;
+                    due += intervalNanos;
+                } else {
+                    batchStart = System.nanoTime();
+                }
+                if (batchStart >= end) break;
+
+                for (int i = 0; i < pipelineDepth; i++) {
+                    client.send(generator.nextArgs(generator.nextCommand()));
+                }
+                for (int i = 0; i < pipelineDepth; i++) {
+                    boolean failed = false;
+                    try {
+                        client.readBinary();
+                    } catch (RespError e) {
+                        failed = true;
+                    }
+                    if (batchStart < measureFrom) continue;
+                    final long latency = System.nanoTime() - batchStart;
+                    if (mode == Mode.CLOSED_LOOP) latencies.recordCorrected(latency, expectedIntervalNanos);
+                    else latencies.record(latency);
+                    operations++;
+                    if (failed) errors++;
+                }
+            }
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package redis.embedded.bench;
+
+import java.util.SplittableRandom;
+
+/** Picks the size in bytes of the next key or value. */
+public interface SizeDistribution {
+
+    int next(SplittableRandom random);
+
+    int max();
+
+    static SizeDistribution fixed(final int size) {
+        if (size < 1) throw new IllegalArgumentException("Size must be at least 1 byte");
+        return new SizeDistribution() {
+            public int next(final SplittableRandom random) {
+                return size;
+            }
+            public int max() {
+                return size;
+            }
+        };
+    }
+
+    static SizeDistribution uniform(final int min, final int max) {
+        if (min < 1 || max < min) throw new IllegalArgumentException("Sizes must satisfy 1 <= min <= max");
+        return new SizeDistribution() {
+            public int next(final SplittableRandom random) {
+                return min + random.nextInt(max - min + 1);
+            }
+            public int max() {
+                return max;
+            }
+        };
+    }
+
+}
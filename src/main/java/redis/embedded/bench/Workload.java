@@ -0,0 +1,131 @@
+package redis.embedded.bench;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * What the load generator sends: a weighted command mix over a keyspace, with key and value sizes drawn from
+ * distributions. Defaults to 80% GET and 20% SET of fixed 16 byte keys and 64 byte values over 10,000 keys.
+ */
+public final class Workload {
+
+    public enum Command {
+        GET, SET, INCR, DEL, EXISTS, PING
+    }
+
+    private static final int VALUE_POOL_SIZE = 64;
+
+    private final Map<Command, Integer> mix = new EnumMap<>(Command.class);
+    private KeyDistribution keys = KeyDistribution.uniform(10_000);
+    private SizeDistribution keySizes = SizeDistribution.fixed(16);
+    private SizeDistribution valueSizes = SizeDistribution.fixed(64);
+    private String keyPrefix = "bench:";
+
+    public static Workload newWorkload() {
+        return new Workload();
+    }
+
+    public Workload command(final Command command, final int weight) {
+        if (weight < 0) throw new IllegalArgumentException("Command weight can not be negative");
+        if (weight == 0) mix.remove(command);
+        else mix.put(command, weight);
+        return this;
+    }
+
+    public Workload keys(final KeyDistribution keys) {
+        this.keys = keys;
+        return this;
+    }
+
+    public Workload keySizes(final SizeDistribution keySizes) {
+        this.keySizes = keySizes;
+        return this;
+    }
+
+    public Workload valueSizes(final SizeDistribution valueSizes) {
+        this.valueSizes = valueSizes;
+        return this;
+    }
+
+    public Workload keyPrefix(final String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+        return this;
+    }
+
+    Generator newGenerator(final long seed) {
+        final Map<Command, Integer> effective = mix.isEmpty() ? defaultMix() : mix;
+        return new Generator(new SplittableRandom(seed), effective);
+    }
+
+    private static Map<Command, Integer> defaultMix() {
+        final Map<Command, Integer> mix = new EnumMap<>(Command.class);
+        mix.put(Command.GET, 80);
+        mix.put(Command.SET, 20);
+        return mix;
+    }
+
+    // One per connection, so nothing in here needs to be thread safe
+    final class Generator {
+        private final SplittableRandom random;
+        private final Command[] commands;
+        private final int[] cumulativeWeights;
+        private final List<byte[]> values = new ArrayList<>(VALUE_POOL_SIZE);
+        private final byte[] prefix = keyPrefix.getBytes(US_ASCII);
+        // INCR gets keys of its own so it never hits a string value written by SET
+        private final byte[] counterPrefix = (keyPrefix + "counter:").getBytes(US_ASCII);
+        private final byte[][] names = new byte[Command.values().length][];
+
+        private Generator(final SplittableRandom random, final Map<Command, Integer> mix) {
+            this.random = random;
+            this.commands = mix.keySet().toArray(new Command[0]);
+            this.cumulativeWeights = new int[commands.length];
+            for (final Command command : Command.values()) names[command.ordinal()] = command.name().getBytes(US_ASCII);
+            int total = 0;
+            for (int i = 0; i < commands.length; i++) {
+                total += mix.get(commands[i]);
+                cumulativeWeights[i] = total;
+            }
+            for (int i = 0; i < VALUE_POOL_SIZE; i++) {
+                final byte[] value = new byte[valueSizes.next(random)];
+                for (int j = 0; j < value.length; j++) value[j] = (byte) ('a' + random.nextInt(26));
+                values.add(value);
+            }
+        }
+
+        Command nextCommand() {
+            final int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (pick < cumulativeWeights[i]) return commands[i];
+            }
+            return commands[commands.length - 1];
+        }
+
+        byte[][] nextArgs(final Command command) {
+            final byte[] name = names[command.ordinal()];
+            switch (command) {
+                case PING: return new byte[][] { name };
+                case SET: return new byte[][] { name, nextKey(prefix), values.get(random.nextInt(VALUE_POOL_SIZE)) };
+                case INCR: return new byte[][] { name, nextKey(counterPrefix) };
+                default: return new byte[][] { name, nextKey(prefix) };
+            }
+        }
+
+        // Keys are the prefix and the key index, zero padded up to the drawn size
+        private byte[] nextKey(final byte[] prefix) {
+            final String index = Long.toString(keys.next(random));
+            final int size = Math.max(keySizes.next(random), prefix.length + index.length());
+            final byte[] key = new byte[size];
+            System.arraycopy(prefix, 0, key, 0, prefix.length);
+            final int digits = size - index.length();
+            for (int i = prefix.length; i < digits; i++) key[i] = '0';
+            for (int i = 0; i < index.length(); i++) key[digits + i] = (byte) index.charAt(i);
+            return key;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package redis.embedded.core;
+
+import redis.embedded.model.RedisVersion;
+
+import java.util.*;
+
+// What this library knows about redis.conf directives: which names exist, which may repeat and the Redis release
+// that introduced them. Names that were never gated are assumed to be supported by every binary.
+enum Directives {;
+
+    // Newest release whose directive names are all listed here. Newer binaries may know names we do not.
+    static final RedisVersion KNOWN_UP_TO = new RedisVersion(7, 2, 0);
+
+    private static final Set<String> KNOWN = new HashSet<>(Arrays.asList(
+        "include", "loadmodule", "rename-command", "user", "sentinel", "save",
+        "acl-pubsub-default", "aclfile", "acllog-max-len", "active-defrag-cycle-max", "active-defrag-cycle-min",
+        "active-defrag-ignore-bytes", "active-defrag-max-scan-fields", "active-defrag-threshold-lower",
+        "active-defrag-threshold-upper", "active-expire-effort", "activedefrag", "activerehashing", "always-show-logo",
+        "aof-load-truncated", "aof-rewrite-incremental-fsync", "aof-timestamp-enabled", "aof-use-rdb-preamble",
+        "aof_rewrite_cpulist", "appenddirname", "appendfilename", "appendfsync", "appendonly",
+        "auto-aof-rewrite-min-size", "auto-aof-rewrite-percentage", "bgsave_cpulist", "bind", "bind-source-addr",
+        "bio_cpulist", "busy-reply-threshold", "client-output-buffer-limit", "client-query-buffer-limit",
+        "cluster-allow-pubsubshard-when-down", "cluster-allow-reads-when-down", "cluster-allow-replica-migration",
+        "cluster-announce-bus-port", "cluster-announce-hostname", "cluster-announce-human-nodename",
+        "cluster-announce-ip", "cluster-announce-port", "cluster-announce-tls-port", "cluster-config-file",
+        "cluster-enabled", "cluster-link-sendbuf-limit", "cluster-migration-barrier", "cluster-node-timeout",
+        "cluster-port", "cluster-preferred-endpoint-type", "cluster-replica-no-failover",
+        "cluster-replica-validity-factor", "cluster-require-full-coverage", "cluster-slave-no-failover",
+        "cluster-slave-validity-factor", "crash-log-enabled", "crash-memcheck-enabled", "daemonize", "databases",
+        "dbfilename", "dir", "disable-thp", "dynamic-hz", "enable-debug-command", "enable-module-command",
+        "enable-protected-configs", "gopher-enabled", "hash-max-listpack-entries", "hash-max-listpack-value",
+        "hash-max-ziplist-entries", "hash-max-ziplist-value", "heapdir", "hide-user-data-from-log",
+        "hll-sparse-max-bytes", "hz", "ignore-warnings", "io-threads", "io-threads-do-reads", "jemalloc-bg-thread",
+        "key-load-delay", "latency-monitor-threshold", "latency-tracking", "latency-tracking-info-percentiles",
+        "lazyfree-lazy-eviction", "lazyfree-lazy-expire", "lazyfree-lazy-server-del", "lazyfree-lazy-user-del",
+        "lazyfree-lazy-user-flush", "lfu-decay-time", "lfu-log-factor", "list-compress-depth",
+        "list-max-listpack-size", "list-max-ziplist-size", "locale-collate", "logfile", "loglevel",
+        "lua-replicate-commands", "lua-time-limit", "masterauth", "masteruser", "max-new-connections-per-cycle",
+        "max-new-tls-connections-per-cycle", "maxclients", "maxheap", "maxmemory", "maxmemory-clients",
+        "maxmemory-eviction-tenacity", "maxmemory-policy", "maxmemory-samples", "min-replicas-max-lag",
+        "min-replicas-to-write", "min-slaves-max-lag", "min-slaves-to-write", "no-appendfsync-on-rewrite",
+        "notify-keyspace-events", "oom-score-adj", "oom-score-adj-values", "persistence-available", "pidfile",
+        "port", "proc-title-template", "propagation-error-behavior", "protected-mode", "proto-max-bulk-len",
+        "rdb-del-sync-files", "rdb-key-save-delay", "rdb-save-incremental-fsync", "rdbchecksum", "rdbcompression",
+        "repl-backlog-size", "repl-backlog-ttl", "repl-disable-tcp-nodelay", "repl-diskless-load",
+        "repl-diskless-sync", "repl-diskless-sync-delay", "repl-diskless-sync-max-replicas",
+        "repl-ping-replica-period", "repl-ping-slave-period", "repl-timeout", "replica-announce-ip",
+        "replica-announce-port", "replica-announced", "replica-ignore-disk-write-errors", "replica-ignore-maxmemory",
+        "replica-lazy-flush", "replica-priority", "replica-read-only", "replica-serve-stale-data", "replicaof",
+        "requirepass", "sanitize-dump-payload", "server_cpulist", "set-max-intset-entries",
+        "set-max-listpack-entries", "set-max-listpack-value", "set-proc-title", "shutdown-on-sigint",
+        "shutdown-on-sigterm", "shutdown-timeout", "slave-announce-ip", "slave-announce-port",
+        "slave-ignore-maxmemory", "slave-lazy-flush", "slave-priority", "slave-read-only", "slave-serve-stale-data",
+        "slaveof", "slowlog-log-slower-than", "slowlog-max-len", "stop-writes-on-bgsave-error",
+        "stream-node-max-bytes", "stream-node-max-entries", "supervised", "syslog-enabled", "syslog-facility",
+        "syslog-ident", "tcp-backlog", "tcp-keepalive", "timeout", "tls-auth-clients", "tls-ca-cert-dir",
+        "tls-ca-cert-file", "tls-cert-file", "tls-ciphers", "tls-ciphersuites", "tls-client-cert-file",
+        "tls-client-key-file", "tls-client-key-file-pass", "tls-cluster", "tls-dh-params-file", "tls-key-file",
+        "tls-key-file-pass", "tls-port", "tls-prefer-server-ciphers", "tls-protocols", "tls-replication",
+        "tls-session-cache-size", "tls-session-cache-timeout", "tls-session-caching", "tracking-table-max-keys",
+        "unixsocket", "unixsocketperm", "use-exit-on-panic", "zset-max-listpack-entries", "zset-max-listpack-value",
+        "zset-max-ziplist-entries", "zset-max-ziplist-value"));
+
+    // Directives that add to, rather than replace, what an earlier line set.
+    private static final Set<String> REPEATABLE = new HashSet<>(Arrays.asList(
+        "include", "loadmodule", "rename-command", "user", "sentinel", "save", "client-output-buffer-limit"));
+
+    // Where the process runs, listens and logs is decided by the library, so a replayed config may not set these.
+    static final List<String> OWNED_BY_EMBEDDING = Collections.unmodifiableList(Arrays.asList(
+        "daemonize", "supervised", "pidfile", "logfile", "dir", "port", "bind", "unixsocket", "unixsocketperm"));
+
+    private static final Map<String, RedisVersion> INTRODUCED = new HashMap<>();
+    static {
+        introduced(4, 0, "lazyfree-lazy-eviction", "lazyfree-lazy-expire", "lazyfree-lazy-server-del",
+            "slave-lazy-flush", "activedefrag", "active-defrag-cycle-min", "active-defrag-cycle-max");
+        introduced(5, 0, "replica-lazy-flush", "replicaof", "replica-read-only", "replica-serve-stale-data",
+            "replica-priority", "rdb-save-incremental-fsync");
+        introduced(6, 0, "io-threads", "io-threads-do-reads", "lazyfree-lazy-user-del", "tls-port", "tls-cert-file",
+            "tls-key-file", "tls-ca-cert-file", "aclfile", "user", "oom-score-adj", "tracking-table-max-keys");
+        introduced(6, 2, "lazyfree-lazy-user-flush", "oom-score-adj-values", "set-proc-title", "proc-title-template");
+        introduced(7, 0, "cluster-port", "enable-debug-command", "enable-module-command", "enable-protected-configs",
+            "shutdown-on-sigterm", "shutdown-on-sigint", "shutdown-timeout", "latency-tracking", "appenddirname");
+    }
+
+    private static void introduced(final int major, final int minor, final String... directives) {
+        for (final String directive : directives) INTRODUCED.put(directive, new RedisVersion(major, minor, 0));
+    }
+
+    static boolean isKnown(final String directive) {
+        // Module options are namespaced, e.g. search.timeout, and can not be checked up front
+        return KNOWN.contains(directive) || directive.indexOf('.') != -1;
+    }
+
+    static boolean isRepeatable(final String directive) {
+        return REPEATABLE.contains(directive);
+    }
+
+    static RedisVersion introducedIn(final String directive) {
+        return INTRODUCED.get(directive);
+    }
+
+    static boolean isSupported(final RedisVersion version, final String line) {
+        final RedisVersion since = INTRODUCED.get(directiveOf(line));
+        return since == null || version.compareTo(since) >= 0;
+    }
+
+    static List<String> supported(final RedisVersion version, final String... lines) {
+        final List<String> settings = new ArrayList<>();
+        for (final String line : lines) {
+            if (isSupported(version, line)) settings.add(line);
+        }
+        return settings;
+    }
+
+    static List<String> required(final RedisVersion version, final String... lines) {
+        final List<String> settings = new ArrayList<>();
+        for (final String line : lines) {
+            if (!isSupported(version, line)) throw tooNew(directiveOf(line), version);
+            settings.add(line);
+        }
+        return settings;
+    }
+
+    static IllegalArgumentException tooNew(final String directive, final RedisVersion version) {
+        return new IllegalArgumentException("'" + directive + "' needs Redis " + INTRODUCED.get(directive)
+            + " or newer, the selected binary is " + version);
+    }
+
+    static String closestKnown(final String directive) {
+        String closest = null;
+        int best = 3;
+        for (final String known : KNOWN) {
+            final int distance = editDistance(directive, known, best);
+            if (distance < best) {
+                best = distance;
+                closest = known;
+            }
+        }
+        return closest;
+    }
+
+    static String directiveOf(final String line) {
+        final String trimmed = line.trim();
+        final int space = trimmed.indexOf(' ');
+        return (space == -1 ? trimmed : trimmed.substring(0, space)).toLowerCase(Locale.ROOT);
+    }
+
+    private static int editDistance(final String a, final String b, final int limit) {
+        if (Math.abs(a.length() - b.length()) >= limit) return limit;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                final int substitute = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            final int[] swap = previous; previous = current; current = swap;
+        }
+        return previous[b.length()];
+    }
+
+}
@@ -0,0 +1,156 @@
+package redis.embedded.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static redis.embedded.util.IO.readResource;
+
+/**
+ * Persistent store of extracted executables, keyed by the SHA-256 of their content. Entries are
+ * shared between builds, JVMs and concurrently running processes; writers serialize on a lock file
+ * per entry and publish with an atomic rename so readers never observe a partially written binary.
+ */
+public final class ExecutableCache {
+
+    public static final String
+        ENVIRONMENT_CACHE_DIRECTORY = "EMBEDDED_REDIS_CACHE_DIR",
+        PROPERTY_CACHE_DIRECTORY = "embedded.redis.cache.dir";
+
+    private static final ConcurrentMap<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+    private static volatile ExecutableCache defaultCache;
+
+    private final Path directory;
+    private final ConcurrentMap<String, File> verified = new ConcurrentHashMap<>();
+
+    public ExecutableCache(final Path directory) {
+        this.directory = directory.toAbsolutePath();
+    }
+
+    public static ExecutableCache defaultCache() {
+        ExecutableCache cache = defaultCache;
+        if (cache == null) {
+            synchronized (ExecutableCache.class) {
+                cache = defaultCache;
+                if (cache == null) defaultCache = cache = new ExecutableCache(defaultCacheDirectory());
+            }
+        }
+        return cache;
+    }
+
+    public static Path defaultCacheDirectory() {
+        final String property = System.getProperty(PROPERTY_CACHE_DIRECTORY);
+        if (property != null && !property.isEmpty()) return Paths.get(property);
+        final String environment = System.getenv(ENVIRONMENT_CACHE_DIRECTORY);
+        if (environment != null && !environment.isEmpty()) return Paths.get(environment);
+        return Paths.get(System.getProperty("java.io.tmpdir"), "embedded-redis-cache");
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public File get(final String resourcePath) throws IOException {
+        final File cached = verified.get(resourcePath);
+        if (cached != null && cached.isFile()) return cached;
+
+        final byte[] content = readResource(resourcePath);
+        final File executable = install(sha256(content), fileName(resourcePath), content);
+        verified.put(resourcePath, executable);
+        return executable;
+    }
+
+    @SuppressWarnings("try")
+    private File install(final String hash, final String name, final byte[] content) throws IOException {
+        final Path entry = directory.resolve(hash);
+        final Path target = entry.resolve(name);
+
+        synchronized (JVM_LOCKS.computeIfAbsent(target, key -> new Object())) {
+            if (isIntact(target, hash)) return target.toFile();
+
+            Files.createDirectories(entry);
+            try (final FileChannel channel = FileChannel.open(directory.resolve(hash + ".lock"), CREATE, WRITE);
+                 final FileLock ignored = channel.lock()) {
+                if (isIntact(target, hash)) return target.toFile();
+
+                final Path temp = Files.createTempFile(entry, name, ".tmp");
+                try {
+                    Files.write(temp, content);
+                    if (!temp.toFile().setExecutable(true))
+                        throw new IOException("Failed to set executable permission for binary " + name + " at cache location " + temp);
+                    publish(temp, target);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+        return target.toFile();
+    }
+
+    private static void publish(final Path temp, final Path target) throws IOException {
+        try {
+            Files.move(temp, target, ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean isIntact(final Path file, final String hash) throws IOException {
+        if (!Files.isRegularFile(file)) return false;
+        try (final InputStream in = Files.newInputStream(file)) {
+            if (!hash.equals(sha256(in))) return false;
+        }
+        return file.toFile().canExecute() || file.toFile().setExecutable(true);
+    }
+
+    private static String fileName(final String resourcePath) {
+        final String name = resourcePath.substring(resourcePath.lastIndexOf('/') + 1);
+        return name.isEmpty() ? "redis-server" : name;
+    }
+
+    private static String sha256(final byte[] content) {
+        final MessageDigest digest = newDigest();
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    private static String sha256(final InputStream in) throws IOException {
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[64 * 1024];
+        int read; while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+}
@@ -9,8 +9,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static redis.embedded.model.OsArchitecture.*;
+import static redis.embedded.core.ExecutableCache.defaultCache;
 import static redis.embedded.util.IO.findBinaryInPath;
-import static redis.embedded.util.IO.writeResourceToExecutableFile;
 
 public interface ExecutableProvider {
 
@@ -20,15 +20,21 @@ public interface ExecutableProvider {
     File get() throws IOException;
 
     static ExecutableProvider newEmbeddedRedisProvider() {
-        final Map<OsArchitecture, String> executables = newProvidedVersionsMap();
-        return () -> writeResourceToExecutableFile(executables.get(detectOSandArchitecture()));
+        return newEmbeddedRedisProvider(defaultCache());
+    }
+    static ExecutableProvider newEmbeddedRedisProvider(final ExecutableCache cache) {
+        return newJarResourceProvider(newProvidedVersionsMap(), cache);
     }
 
     static ExecutableProvider newFileThenJarResourceProvider(final Map<OsArchitecture, String> executables) {
+        return newFileThenJarResourceProvider(executables, defaultCache());
+    }
+    static ExecutableProvider newFileThenJarResourceProvider(final Map<OsArchitecture, String> executables,
+                                                             final ExecutableCache cache) {
         return () -> {
-            final String executablePath = executables.get(detectOSandArchitecture());
+            final String executablePath = selectExecutable(executables);
             final File executable = new File(executablePath);
-            return executable.isFile() ? executable : writeResourceToExecutableFile(executablePath);
+            return executable.isFile() ? executable : cache.get(executablePath);
         };
     }
 
@@ -47,17 +53,28 @@ public interface ExecutableProvider {
     }
 
     static ExecutableProvider newJarResourceProvider(final Map<OsArchitecture, String> executables) {
-        return () -> writeResourceToExecutableFile(executables.get(detectOSandArchitecture()));
+        return newJarResourceProvider(executables, defaultCache());
+    }
+    static ExecutableProvider newJarResourceProvider(final Map<OsArchitecture, String> executables,
+                                                     final ExecutableCache cache) {
+        return () -> cache.get(selectExecutable(executables));
     }
 
     static ExecutableProvider newExecutableInPath(final String executableName) throws FileNotFoundException {
         return findBinaryInPath(executableName)::toFile;
     }
 
+    static String selectExecutable(final Map<OsArchitecture, String> executables) throws FileNotFoundException {
+        final OsArchitecture platform = detectOSandArchitecture();
+        final String executable = platform.selectFrom(executables);
+        if (executable == null) throw new FileNotFoundException("No Redis executable configured for platform " + platform);
+        return executable;
+    }
+
     static Map<OsArchitecture, String> newProvidedVersionsMap() {
         final Map<OsArchitecture, String> map = new HashMap<>();
         map.put(UNIX_x86, "/redis-server-6.2.7-linux-386");
-        map.put(UNIX_x86_64, "/redis-server-6.2.6-v5-linux-amd64");
+        map.put(UNIX_x86_64_GLIBC, "/redis-server-6.2.6-v5-linux-amd64");
         map.put(UNIX_AARCH64, "/redis-server-6.2.7-linux-arm64");
         map.put(WINDOWS_x86_64, "/redis-server-5.0.14.1-windows-amd64.exe");
         map.put(MAC_OS_X_x86_64, "/redis-server-6.2.6-v5-darwin-amd64");
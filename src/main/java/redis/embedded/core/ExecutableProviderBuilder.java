@@ -1,17 +1,21 @@
 package redis.embedded.core;
 
 import redis.embedded.model.Architecture;
+import redis.embedded.model.Libc;
 import redis.embedded.model.OS;
 import redis.embedded.model.OsArchitecture;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
+import static redis.embedded.core.ExecutableCache.defaultCache;
 import static redis.embedded.core.ExecutableProvider.newJarResourceProvider;
 import static redis.embedded.core.ExecutableProvider.newProvidedVersionsMap;
 
 public class ExecutableProviderBuilder {
     private final Map<OsArchitecture, String> map = new HashMap<>();
+    private ExecutableCache cache;
 
     public ExecutableProviderBuilder addProvidedVersions() {
         map.putAll(newProvidedVersionsMap());
@@ -20,17 +24,33 @@ public class ExecutableProviderBuilder {
 
     public ExecutableProviderBuilder put(final OS os, final String executable) {
         for (final Architecture arch : Architecture.values()) {
-            map.put(new OsArchitecture(os, arch), executable);
+            put(os, arch, executable);
         }
         return this;
     }
 
     public ExecutableProviderBuilder put(final OS os, final Architecture arch, final String executable) {
+        map.keySet().removeIf(key -> key.os == os && key.arch == arch);
         map.put(new OsArchitecture(os, arch), executable);
         return this;
     }
 
+    public ExecutableProviderBuilder put(final OS os, final Architecture arch, final Libc libc, final String executable) {
+        map.put(new OsArchitecture(os, arch, libc), executable);
+        return this;
+    }
+
+    public ExecutableProviderBuilder cacheDirectory(final Path directory) {
+        this.cache = new ExecutableCache(directory);
+        return this;
+    }
+
+    public ExecutableProviderBuilder cache(final ExecutableCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
     public ExecutableProvider build() {
-        return newJarResourceProvider(map);
+        return newJarResourceProvider(map, cache != null ? cache : defaultCache());
     }
 }
@@ -0,0 +1,193 @@
+package redis.embedded.core;
+
+import redis.embedded.model.ShutdownMode;
+
+import java.nio.file.Path;
+
+import static redis.embedded.core.LogSink.newDefaultLogSink;
+import static redis.embedded.core.ReadinessStrategy.DEFAULT_STARTUP_TIMEOUT_MILLISECONDS;
+import static redis.embedded.core.ReadinessStrategy.newDefaultReadinessStrategy;
+
+public final class LifecycleOptions {
+
+    public static final int DEFAULT_LOG_BUFFER_LINES = 256;
+    public static final long
+        DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS = 5000L,
+        DEFAULT_TERMINATE_TIMEOUT_MILLISECONDS = 2000L,
+        DEFAULT_KILL_TIMEOUT_MILLISECONDS = 5000L;
+
+    private boolean forceStop = false;
+    private ReadinessStrategy readiness = newDefaultReadinessStrategy();
+    private long startupTimeoutMillis = DEFAULT_STARTUP_TIMEOUT_MILLISECONDS;
+    private LogSink logSink = newDefaultLogSink();
+    private int logBufferLines = DEFAULT_LOG_BUFFER_LINES;
+    private Path dataset;
+    private ShutdownMode shutdownMode = ShutdownMode.NOSAVE;
+    private boolean rebindOnConflict = false;
+    private boolean portLeased = false;
+    private Path unixSocket;
+    private long shutdownTimeoutMillis = DEFAULT_SHUTDOWN_TIMEOUT_MILLISECONDS;
+    private long terminateTimeoutMillis = DEFAULT_TERMINATE_TIMEOUT_MILLISECONDS;
+    private long killTimeoutMillis = DEFAULT_KILL_TIMEOUT_MILLISECONDS;
+    private Path workingDirectory;
+    private RedisConfig config;
+
+    public LifecycleOptions copy() {
+        final LifecycleOptions copy = new LifecycleOptions();
+        copy.forceStop = forceStop;
+        copy.readiness = readiness;
+        copy.startupTimeoutMillis = startupTimeoutMillis;
+        copy.logSink = logSink;
+        copy.logBufferLines = logBufferLines;
+        copy.dataset = dataset;
+        copy.shutdownMode = shutdownMode;
+        copy.rebindOnConflict = rebindOnConflict;
+        copy.portLeased = portLeased;
+        copy.unixSocket = unixSocket;
+        copy.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        copy.terminateTimeoutMillis = terminateTimeoutMillis;
+        copy.killTimeoutMillis = killTimeoutMillis;
+        copy.workingDirectory = workingDirectory;
+        copy.config = config == null ? null : config.copy();
+        return copy;
+    }
+
+    public LifecycleOptions forceStop(final boolean forceStop) {
+        this.forceStop = forceStop;
+        return this;
+    }
+
+    public LifecycleOptions readiness(final ReadinessStrategy readiness) {
+        this.readiness = readiness;
+        return this;
+    }
+
+    public LifecycleOptions startupTimeoutMillis(final long startupTimeoutMillis) {
+        this.startupTimeoutMillis = startupTimeoutMillis;
+        return this;
+    }
+
+    public LifecycleOptions logSink(final LogSink logSink) {
+        this.logSink = logSink;
+        return this;
+    }
+
+    public LifecycleOptions logBufferLines(final int logBufferLines) {
+        if (logBufferLines < 1) throw new IllegalArgumentException("Log buffer needs room for at least one line");
+        this.logBufferLines = logBufferLines;
+        return this;
+    }
+
+    public LifecycleOptions dataset(final Path dataset) {
+        this.dataset = dataset;
+        return this;
+    }
+
+    public LifecycleOptions shutdownMode(final ShutdownMode shutdownMode) {
+        this.shutdownMode = shutdownMode;
+        return this;
+    }
+
+    public LifecycleOptions rebindOnConflict(final boolean rebindOnConflict) {
+        this.rebindOnConflict = rebindOnConflict;
+        return this;
+    }
+
+    /** The port handed to the instance was leased for it, so the instance releases it when done. */
+    public LifecycleOptions portLeased(final boolean portLeased) {
+        this.portLeased = portLeased;
+        return this;
+    }
+
+    public LifecycleOptions unixSocket(final Path unixSocket) {
+        this.unixSocket = unixSocket;
+        return this;
+    }
+
+    public LifecycleOptions shutdownTimeoutMillis(final long shutdownTimeoutMillis) {
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        return this;
+    }
+
+    public LifecycleOptions terminateTimeoutMillis(final long terminateTimeoutMillis) {
+        this.terminateTimeoutMillis = terminateTimeoutMillis;
+        return this;
+    }
+
+    public LifecycleOptions killTimeoutMillis(final long killTimeoutMillis) {
+        this.killTimeoutMillis = killTimeoutMillis;
+        return this;
+    }
+
+    public LifecycleOptions workingDirectory(final Path workingDirectory) {
+        this.workingDirectory = workingDirectory;
+        return this;
+    }
+
+    /** A config the instance writes into its working directory on every start, for processes that need a file. */
+    public LifecycleOptions config(final RedisConfig config) {
+        this.config = config;
+        return this;
+    }
+
+    public boolean forceStop() {
+        return forceStop;
+    }
+
+    public ReadinessStrategy readiness() {
+        return readiness;
+    }
+
+    public long startupTimeoutMillis() {
+        return startupTimeoutMillis;
+    }
+
+    public LogSink logSink() {
+        return logSink;
+    }
+
+    public int logBufferLines() {
+        return logBufferLines;
+    }
+
+    public Path dataset() {
+        return dataset;
+    }
+
+    public ShutdownMode shutdownMode() {
+        return shutdownMode;
+    }
+
+    public boolean rebindOnConflict() {
+        return rebindOnConflict;
+    }
+
+    public boolean portLeased() {
+        return portLeased;
+    }
+
+    public Path unixSocket() {
+        return unixSocket;
+    }
+
+    public long shutdownTimeoutMillis() {
+        return shutdownTimeoutMillis;
+    }
+
+    public long terminateTimeoutMillis() {
+        return terminateTimeoutMillis;
+    }
+
+    public long killTimeoutMillis() {
+        return killTimeoutMillis;
+    }
+
+    public Path workingDirectory() {
+        return workingDirectory;
+    }
+
+    public RedisConfig config() {
+        return config;
+    }
+
+}
@@ -0,0 +1,72 @@
+package redis.embedded.core;
+
+import redis.embedded.model.LogSource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+public interface LogSink {
+
+    void accept(String instance, LogSource source, String line);
+
+    default LogSink and(final LogSink other) {
+        return (instance, source, line) -> {
+            accept(instance, source, line);
+            other.accept(instance, source, line);
+        };
+    }
+
+    default LogSink only(final LogSource wanted) {
+        return (instance, source, line) -> {
+            if (source == wanted) accept(instance, source, line);
+        };
+    }
+
+    static LogSink newDefaultLogSink() {
+        return newConsoleLogSink().only(LogSource.STDERR);
+    }
+
+    static LogSink newDiscardingLogSink() {
+        return (instance, source, line) -> {};
+    }
+
+    static LogSink newConsoleLogSink() {
+        return (instance, source, line) -> System.out.println(line);
+    }
+
+    static LogSink newLoggerLogSink() {
+        return newLoggerLogSink("redis.embedded");
+    }
+    static LogSink newLoggerLogSink(final String loggerName) {
+        final Logger logger = Logger.getLogger(loggerName);
+        return (instance, source, line) -> {
+            final Level level = source == LogSource.STDERR ? Level.WARNING : Level.INFO;
+            if (logger.isLoggable(level)) logger.log(level, "[{0}] {1}", new Object[] { instance, line });
+        };
+    }
+
+    static LogSink newFileLogSink(final Path file) throws IOException {
+        final BufferedWriter writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND);
+        return (instance, source, line) -> {
+            synchronized (writer) {
+                try {
+                    writer.write('[' + instance + "] " + line);
+                    writer.newLine();
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+}
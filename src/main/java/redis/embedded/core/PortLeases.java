@@ -0,0 +1,134 @@
+package redis.embedded.core;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Hands out ports that are reserved across JVMs by holding a lock on {@code <port>.lock} in a shared directory.
+ * The operating system drops the locks of a crashed JVM, so leases never outlive their holder. The default range
+ * sits below the usual kernel ephemeral range, so outgoing connections do not steal leased ports either.
+ */
+public final class PortLeases {
+
+    public static final String
+        ENVIRONMENT_LEASE_DIRECTORY = "EMBEDDED_REDIS_PORT_DIR",
+        PROPERTY_LEASE_DIRECTORY = "embedded.redis.port.dir";
+    public static final int
+        DEFAULT_FIRST_PORT = 20000,
+        DEFAULT_LAST_PORT = 32767;
+
+    private static final Map<Path, FileLock> HELD = new ConcurrentHashMap<>();
+    private static volatile PortLeases shared;
+
+    private final Path directory;
+    private final int firstPort;
+    private final int lastPort;
+
+    public PortLeases(final Path directory, final int firstPort, final int lastPort) {
+        if (firstPort < 1 || lastPort > 65535 || firstPort > lastPort)
+            throw new IllegalArgumentException("Invalid port range " + firstPort + "-" + lastPort);
+        this.directory = directory.toAbsolutePath();
+        this.firstPort = firstPort;
+        this.lastPort = lastPort;
+    }
+
+    public static PortLeases shared() {
+        PortLeases leases = shared;
+        if (leases == null) {
+            synchronized (PortLeases.class) {
+                leases = shared;
+                if (leases == null) shared = leases = new PortLeases(defaultLeaseDirectory(), DEFAULT_FIRST_PORT, DEFAULT_LAST_PORT);
+            }
+        }
+        return leases;
+    }
+
+    public static Path defaultLeaseDirectory() {
+        final String property = System.getProperty(PROPERTY_LEASE_DIRECTORY);
+        if (property != null && !property.isEmpty()) return Paths.get(property);
+        final String environment = System.getenv(ENVIRONMENT_LEASE_DIRECTORY);
+        if (environment != null && !environment.isEmpty()) return Paths.get(environment);
+        return Paths.get(System.getProperty("java.io.tmpdir"), "embedded-redis-ports");
+    }
+
+    public int lease() {
+        final int range = lastPort - firstPort + 1;
+        final int offset = ThreadLocalRandom.current().nextInt(range);
+        for (int i = 0; i < range; i++) {
+            final int port = firstPort + (offset + i) % range;
+            if (tryLease(port)) return port;
+        }
+        throw new IllegalArgumentException("Could not lease a free port between " + firstPort + " and " + lastPort);
+    }
+
+    public boolean tryLease(final int port) {
+        final Path lockFile = lockFile(port);
+        // closing any channel on a locked file drops the lock for the whole JVM, so never open a file we hold
+        synchronized (HELD) {
+            if (HELD.containsKey(lockFile)) return false;
+            FileChannel channel = null;
+            try {
+                Files.createDirectories(directory);
+                channel = FileChannel.open(lockFile, CREATE, WRITE);
+                final FileLock lock = channel.tryLock();
+                if (lock == null || !isBindable(port)) {
+                    channel.close();
+                    return false;
+                }
+                HELD.put(lockFile, lock);
+                return true;
+            } catch (IOException | OverlappingFileLockException e) {
+                closeQuietly(channel);
+                return false;
+            }
+        }
+    }
+
+    public boolean isLeased(final int port) {
+        return HELD.containsKey(lockFile(port));
+    }
+
+    public void release(final int port) {
+        synchronized (HELD) {
+            final FileLock lock = HELD.remove(lockFile(port));
+            if (lock != null) closeQuietly(lock.channel());
+        }
+    }
+
+    private Path lockFile(final int port) {
+        return directory.resolve(port + ".lock");
+    }
+
+    private static boolean isBindable(final int port) {
+        try (final ServerSocket socket = new ServerSocket()) {
+            socket.setReuseAddress(false);
+            socket.bind(new InetSocketAddress(port));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(final FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            /* eat quietly */
+        }
+    }
+
+}
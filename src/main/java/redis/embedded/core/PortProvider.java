@@ -7,8 +7,13 @@ import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public interface PortProvider {
+    int CLUSTER_BUS_PORT_OFFSET = 10000;
+
     int get();
 
+    /** Hands back a port from {@link #get()} once the server on it is gone. Only leasing providers hold on to ports. */
+    default void release(final int port) {}
+
     static PortProvider newEphemeralPortProvider() {
         return () -> {
             try (final ServerSocket socket = new ServerSocket(0)) {
@@ -20,6 +25,37 @@ public interface PortProvider {
         };
     }
 
+    static PortProvider newLeasedPortProvider() {
+        return newLeasedPortProvider(PortLeases.shared());
+    }
+    static PortProvider newLeasedPortProvider(final PortLeases leases) {
+        return new PortProvider() {
+            public int get() {
+                return leases.lease();
+            }
+            public void release(final int port) {
+                leases.release(port);
+            }
+        };
+    }
+
+    @SuppressWarnings("try")
+    static PortProvider newEphemeralClusterPortProvider() {
+        final PortProvider ephemeral = newEphemeralPortProvider();
+        return () -> {
+            for (int attempt = 0; attempt < 100; attempt++) {
+                final int port = ephemeral.get();
+                if (port + CLUSTER_BUS_PORT_OFFSET > 65535) continue;
+                try (final ServerSocket bus = new ServerSocket(port + CLUSTER_BUS_PORT_OFFSET)) {
+                    return port;
+                } catch (IOException e) {
+                    /* bus port taken, try another */
+                }
+            }
+            throw new IllegalArgumentException("Could not provide ephemeral port with a free cluster bus port");
+        };
+    }
+
     static PortProvider newPredefinedPortProvider(final Collection<Integer> ports) {
         final Iterator<Integer> iterator = ports.iterator();
         return () -> {
@@ -0,0 +1,117 @@
+package redis.embedded.core;
+
+import redis.embedded.model.Endpoint;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+import static redis.embedded.util.IO.lifecycleExecutor;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+public final class ReadinessContext {
+
+    private static final int MAX_STARTUP_LOG_LINES = 1000;
+
+    private final Process process;
+    private final Endpoint endpoint;
+    private final Pattern readyPattern;
+    private final CompletableFuture<Void> logMatch = new CompletableFuture<>();
+    private final CompletableFuture<Void> outputClosed = new CompletableFuture<>();
+    private final StringBuilder startupLog = new StringBuilder();
+    private int startupLogLines = 0;
+    private volatile boolean settled = false;
+
+    public ReadinessContext(final Process process, final int port, final Pattern readyPattern) {
+        this(process, Endpoint.tcp(DEFAULT_HOST, port), readyPattern);
+    }
+
+    public ReadinessContext(final Process process, final Endpoint endpoint, final Pattern readyPattern) {
+        this.process = process;
+        this.endpoint = endpoint;
+        this.readyPattern = readyPattern;
+    }
+
+    public Process process() {
+        return process;
+    }
+
+    public int port() {
+        return endpoint.port;
+    }
+
+    public Endpoint endpoint() {
+        return endpoint;
+    }
+
+    public Pattern readyPattern() {
+        return readyPattern;
+    }
+
+    public CompletableFuture<Void> logMatch() {
+        return logMatch;
+    }
+
+    public CompletableFuture<Void> outputClosed() {
+        return outputClosed;
+    }
+
+    public boolean isSettled() {
+        return settled;
+    }
+
+    public void settle() {
+        settled = true;
+    }
+
+    public CompletableFuture<Void> pollUntil(final String condition, final long initialBackoffMillis,
+                                             final long maxBackoffMillis, final BooleanSupplier probe) {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        lifecycleExecutor().execute(() -> {
+            long backoff = initialBackoffMillis;
+            while (!settled && !done.isDone()) {
+                if (!process.isAlive()) {
+                    done.completeExceptionally(new IOException("Redis process exited with code "
+                        + process.exitValue() + " before it " + condition));
+                    return;
+                }
+                if (probe.getAsBoolean()) {
+                    done.complete(null);
+                    return;
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    done.completeExceptionally(e);
+                    return;
+                }
+                backoff = Math.min(backoff * 2, maxBackoffMillis);
+            }
+        });
+        return done;
+    }
+
+    public void onLine(final String line) {
+        if (settled || logMatch.isDone()) return;
+        if (readyPattern != null && readyPattern.matcher(line).matches()) {
+            logMatch.complete(null);
+            return;
+        }
+        synchronized (startupLog) {
+            if (startupLogLines++ < MAX_STARTUP_LOG_LINES) startupLog.append('\n').append(line);
+        }
+    }
+
+    public void onEndOfOutput() {
+        logMatch.completeExceptionally(new IOException("Ready pattern not found in log"));
+        outputClosed.completeExceptionally(new IOException("Redis process exited before it became ready"));
+    }
+
+    public String startupLog() {
+        synchronized (startupLog) {
+            return startupLog.toString();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package redis.embedded.core;
+
+import redis.embedded.error.RespError;
+import redis.embedded.model.Endpoint;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static redis.embedded.util.IO.pidOf;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+public interface ReadinessStrategy {
+
+    long DEFAULT_STARTUP_TIMEOUT_MILLISECONDS = 30000L;
+
+    CompletableFuture<Void> whenReady(ReadinessContext context);
+
+    static ReadinessStrategy newDefaultReadinessStrategy() {
+        return firstOf(newPingReadinessStrategy(), newLogPatternReadinessStrategy());
+    }
+
+    static ReadinessStrategy newLogPatternReadinessStrategy() {
+        return ReadinessContext::logMatch;
+    }
+
+    static ReadinessStrategy newPingReadinessStrategy() {
+        return newPingReadinessStrategy(2, 100);
+    }
+    static ReadinessStrategy newPingReadinessStrategy(final long initialBackoffMillis, final long maxBackoffMillis) {
+        return context -> context.pollUntil("answered PING", initialBackoffMillis, maxBackoffMillis,
+            () -> answersPing(context.endpoint(), pidOf(context.process())));
+    }
+
+    static ReadinessStrategy newDatasetLoadedReadinessStrategy() {
+        return context -> context.pollUntil("finished loading its dataset", 2, 100,
+            () -> finishedLoading(context.endpoint()));
+    }
+
+    static ReadinessStrategy inSequence(final ReadinessStrategy first, final ReadinessStrategy then) {
+        return context -> first.whenReady(context).thenCompose(v -> then.whenReady(context));
+    }
+
+    static ReadinessStrategy firstOf(final ReadinessStrategy... strategies) {
+        return context -> {
+            final CompletableFuture<Void> ready = new CompletableFuture<>();
+            final AtomicInteger remaining = new AtomicInteger(strategies.length);
+            for (final ReadinessStrategy strategy : strategies) {
+                strategy.whenReady(context).whenComplete((v, error) -> {
+                    if (error == null) ready.complete(null);
+                    else if (remaining.decrementAndGet() == 0) ready.completeExceptionally(error);
+                });
+            }
+            return ready;
+        };
+    }
+
+    static boolean answersPing(final int port, final long pid) {
+        return answersPing(Endpoint.tcp(DEFAULT_HOST, port), pid);
+    }
+    static boolean answersPing(final Endpoint endpoint, final long pid) {
+        try (final RespClient client = new RespClient(endpoint, 250)) {
+            if (pid == -1) {
+                client.call("PING");
+                return true;
+            }
+            client.send("PING").send("INFO", "server").read();
+            return isProcess(client.read(), pid);
+        } catch (RespError e) {
+            return !e.getMessage().startsWith("LOADING");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static boolean isProcess(final Object serverInfo, final long pid) {
+        return String.valueOf(serverInfo).contains("process_id:" + pid + "\r\n");
+    }
+
+    static boolean finishedLoading(final Endpoint endpoint) {
+        try (final RespClient client = new RespClient(endpoint, 250)) {
+            return String.valueOf(client.call("INFO", "persistence")).contains("loading:0\r\n");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+}
@@ -6,10 +6,13 @@ import redis.embedded.RedisServer;
 import redis.embedded.model.ReplicationGroup;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import static redis.embedded.core.PortProvider.*;
 
@@ -19,6 +22,7 @@ public final class RedisClusterBuilder {
     private RedisServerBuilder serverBuilder = new RedisServerBuilder();
     private int sentinelCount = 1;
     private int quorumSize = 1;
+    private int parallelism = RedisCluster.DEFAULT_PARALLELISM;
     private PortProvider sentinelPortProvider = newSequencePortProvider(26379);
     private PortProvider replicationGroupPortProvider = newSequencePortProvider(6379);
     private final List<ReplicationGroup> groups = new LinkedList<>();
@@ -75,39 +79,49 @@ public final class RedisClusterBuilder {
         return this;
     }
 
+    public RedisClusterBuilder parallelism(final int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
     public RedisClusterBuilder replicationGroup(final String masterName, final int slaveCount) {
-        this.groups.add(new ReplicationGroup(masterName, slaveCount, this.replicationGroupPortProvider));
+        return replicationGroup(masterName, slaveCount, null);
+    }
+
+    public RedisClusterBuilder replicationGroup(final String masterName, final int slaveCount, final Path dataset) {
+        this.groups.add(new ReplicationGroup(masterName, slaveCount, this.replicationGroupPortProvider, dataset));
         return this;
     }
 
     public RedisCluster build() throws IOException {
         final List<Redis> sentinels = buildSentinels();
-        final List<Redis> servers = buildServers();
-        return new RedisCluster(sentinels, servers);
+        final Map<Redis, List<Redis>> servers = buildServers();
+        return new RedisCluster(sentinels, servers, parallelism);
     }
 
-    private List<Redis> buildServers() throws IOException {
-        final List<Redis> servers = new ArrayList<>();
+    private Map<Redis, List<Redis>> buildServers() throws IOException {
+        final Map<Redis, List<Redis>> servers = new LinkedHashMap<>();
         for (final ReplicationGroup g : groups) {
-            servers.add(buildMaster(g));
-            buildSlaves(servers, g);
+            servers.put(buildMaster(g), buildSlaves(g));
         }
         return servers;
     }
 
-    private void buildSlaves(final List<Redis> servers, ReplicationGroup g) throws IOException {
+    private List<Redis> buildSlaves(final ReplicationGroup g) throws IOException {
+        final List<Redis> slaves = new ArrayList<>();
         for (final Integer slavePort : g.slavePorts) {
             serverBuilder.reset();
             serverBuilder.port(slavePort);
             serverBuilder.slaveOf("localhost", g.masterPort);
             final RedisServer slave = serverBuilder.build();
-            servers.add(slave);
+            slaves.add(slave);
         }
+        return slaves;
     }
 
     private Redis buildMaster(final ReplicationGroup g) throws IOException {
         serverBuilder.reset();
-        return serverBuilder.port(g.masterPort).build();
+        return serverBuilder.port(g.masterPort).dataset(g.dataset).build();
     }
 
     private List<Redis> buildSentinels() {
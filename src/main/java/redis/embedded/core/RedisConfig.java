@@ -0,0 +1,266 @@
+package redis.embedded.core;
+
+import redis.embedded.model.RedisVersion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An ordered, in-memory redis.conf. Adding a directive that takes a single value replaces the earlier line, so the
+ * model always matches what Redis would end up using. The result is handed to Redis as {@code --directive value}
+ * arguments; only sentinels, which rewrite their config, need it written to a file.
+ */
+public final class RedisConfig {
+
+    private final List<Directive> directives = new ArrayList<>();
+
+    public static RedisConfig parse(final String text) {
+        final RedisConfig config = new RedisConfig();
+        int lineNumber = 0;
+        for (final String line : text.split("\\r?\\n")) {
+            lineNumber++;
+            try {
+                config.add(line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return config;
+    }
+
+    public static RedisConfig parse(final Path redisConf) throws IOException {
+        final RedisConfig config = new RedisConfig();
+        try (final BufferedReader reader = Files.newBufferedReader(redisConf, UTF_8)) {
+            int lineNumber = 0;
+            String line; while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                try {
+                    config.add(line);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(redisConf + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return config;
+    }
+
+    /** Adds one redis.conf line. Blank lines and comments are ignored. */
+    public RedisConfig add(final String line) {
+        final List<String> words = split(line);
+        if (words.isEmpty() || words.get(0).startsWith("#")) return this;
+        return add(words.get(0), words.subList(1, words.size()).toArray(new String[0]));
+    }
+
+    public RedisConfig add(final String name, final String... args) {
+        final Directive directive = new Directive(name, args);
+        if (!Directives.isRepeatable(directive.name)) remove(directive.name);
+        directives.add(directive);
+        return this;
+    }
+
+    /** Replaces every line for the directive, repeatable ones included, with a single new line. */
+    public RedisConfig override(final String name, final String... args) {
+        remove(name);
+        directives.add(new Directive(name, args));
+        return this;
+    }
+
+    public RedisConfig merge(final RedisConfig other) {
+        for (final Directive directive : other.directives) {
+            add(directive.name, directive.args.toArray(new String[0]));
+        }
+        return this;
+    }
+
+    public RedisConfig remove(final String name) {
+        final String normalized = name.toLowerCase(Locale.ROOT);
+        directives.removeIf(directive -> directive.name.equals(normalized));
+        return this;
+    }
+
+    /** The arguments of the last line for the directive, or {@code null} when it is not set. */
+    public List<String> get(final String name) {
+        final String normalized = name.toLowerCase(Locale.ROOT);
+        for (int i = directives.size() - 1; i >= 0; i--) {
+            if (directives.get(i).name.equals(normalized)) return directives.get(i).args;
+        }
+        return null;
+    }
+
+    public List<Directive> directives() {
+        return Collections.unmodifiableList(directives);
+    }
+
+    public boolean isEmpty() {
+        return directives.isEmpty();
+    }
+
+    /**
+     * Rejects misspelled directives and directives the given Redis release does not support yet. Binaries newer
+     * than the names this library knows about only get the version check.
+     */
+    public RedisConfig validate(final RedisVersion version) {
+        return validate(version, true);
+    }
+
+    /**
+     * Rejects directives the given Redis release does not support yet. Names this library does not know are only
+     * rejected when {@code rejectUnknown} is set, because old aliases and rarely used directives are missing from
+     * its list; without it Redis itself reports them when it starts.
+     */
+    public RedisConfig validate(final RedisVersion version, final boolean rejectUnknown) {
+        for (final Directive directive : directives) {
+            if (rejectUnknown && version.compareTo(Directives.KNOWN_UP_TO) <= 0 && !Directives.isKnown(directive.name)) {
+                final String suggestion = Directives.closestKnown(directive.name);
+                throw new IllegalArgumentException("Unknown Redis directive '" + directive.name + "'"
+                    + (suggestion == null ? "" : ", did you mean '" + suggestion + "'?"));
+            }
+            final RedisVersion since = Directives.introducedIn(directive.name);
+            if (since != null && version.compareTo(since) < 0)
+                throw Directives.tooNew(directive.name, version);
+        }
+        return this;
+    }
+
+    public List<String> toArgs() {
+        final List<String> args = new ArrayList<>();
+        for (final Directive directive : directives) {
+            args.add("--" + directive.name);
+            args.addAll(directive.args);
+        }
+        return args;
+    }
+
+    public List<String> lines() {
+        final List<String> lines = new ArrayList<>();
+        for (final Directive directive : directives) lines.add(directive.toString());
+        return lines;
+    }
+
+    public Path writeTo(final Path file) throws IOException {
+        return Files.write(file, lines(), UTF_8);
+    }
+
+    public RedisConfig copy() {
+        final RedisConfig copy = new RedisConfig();
+        copy.directives.addAll(directives);
+        return copy;
+    }
+
+    public String toString() {
+        return String.join(System.lineSeparator(), lines());
+    }
+
+    public static final class Directive {
+        public final String name;
+        public final List<String> args;
+
+        public Directive(final String name, final String... args) {
+            if (name == null || name.isEmpty() || name.startsWith("-"))
+                throw new IllegalArgumentException("Invalid Redis directive name '" + name + "'");
+            this.name = name.toLowerCase(Locale.ROOT);
+            this.args = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(args)));
+        }
+
+        public String toString() {
+            final StringBuilder line = new StringBuilder(name);
+            for (final String arg : args) line.append(' ').append(quote(arg));
+            return line.toString();
+        }
+    }
+
+    private static String quote(final String arg) {
+        boolean plain = !arg.isEmpty();
+        for (int i = 0; plain && i < arg.length(); i++) {
+            final char c = arg.charAt(i);
+            plain = c > ' ' && c != '"' && c != '\'' && c != '\\' && c < 0x7F;
+        }
+        if (plain) return arg;
+
+        final StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < arg.length(); i++) {
+            final char c = arg.charAt(i);
+            switch (c) {
+                case '\\': quoted.append("\\\\"); break;
+                case '"': quoted.append("\\\""); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                case '\t': quoted.append("\\t"); break;
+                default:
+                    if (c < ' ' || c == 0x7F) quoted.append(String.format("\\x%02x", (int) c));
+                    else quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // Same rules as sdssplitargs(), which Redis uses to read config lines
+    static List<String> split(final String line) {
+        final List<String> words = new ArrayList<>();
+        int i = 0;
+        final int length = line.length();
+        while (true) {
+            while (i < length && Character.isWhitespace(line.charAt(i))) i++;
+            if (i >= length) return words;
+
+            final StringBuilder word = new StringBuilder();
+            final char quote = line.charAt(i) == '"' || line.charAt(i) == '\'' ? line.charAt(i++) : 0;
+            boolean closed = quote == 0;
+            while (i < length) {
+                final char c = line.charAt(i);
+                if (quote == 0) {
+                    if (Character.isWhitespace(c)) break;
+                    word.append(c);
+                    i++;
+                } else if (c == '\\' && i + 1 < length) {
+                    final char next = line.charAt(i + 1);
+                    if (quote == '"' && next == 'x' && i + 3 < length && isHex(line.charAt(i + 2)) && isHex(line.charAt(i + 3))) {
+                        word.append((char) Integer.parseInt(line.substring(i + 2, i + 4), 16));
+                        i += 4;
+                    } else if (quote == '"') {
+                        word.append(unescape(next));
+                        i += 2;
+                    } else if (next == '\'') {
+                        word.append('\'');
+                        i += 2;
+                    } else {
+                        word.append(c);
+                        i++;
+                    }
+                } else if (c == quote) {
+                    i++;
+                    if (i < length && !Character.isWhitespace(line.charAt(i)))
+                        throw new IllegalArgumentException("Closing quote must be followed by a space in: " + line);
+                    closed = true;
+                    break;
+                } else {
+                    word.append(c);
+                    i++;
+                }
+            }
+            if (!closed) throw new IllegalArgumentException("Unbalanced quotes in: " + line);
+            words.add(word.toString());
+        }
+    }
+
+    private static boolean isHex(final char c) {
+        return Character.digit(c, 16) != -1;
+    }
+
+    private static char unescape(final char c) {
+        switch (c) {
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'b': return '\b';
+            case 'a': return (char) 7;
+            default: return c;
+        }
+    }
+
+}
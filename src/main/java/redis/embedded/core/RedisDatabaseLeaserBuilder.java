@@ -0,0 +1,47 @@
+package redis.embedded.core;
+
+import redis.embedded.RedisDatabaseLeaser;
+
+import static redis.embedded.core.PortProvider.newLeasedPortProvider;
+
+public final class RedisDatabaseLeaserBuilder {
+
+    private RedisServerBuilder serverBuilder = new RedisServerBuilder();
+    private PortProvider portProvider = newLeasedPortProvider();
+    private int databasesPerServer = 16;
+    private int maxServers = 4;
+    private long leaseTimeoutMilliseconds = 30000L;
+
+    public RedisDatabaseLeaserBuilder withServerBuilder(final RedisServerBuilder serverBuilder) {
+        this.serverBuilder = serverBuilder;
+        return this;
+    }
+
+    public RedisDatabaseLeaserBuilder portProvider(final PortProvider portProvider) {
+        this.portProvider = portProvider;
+        return this;
+    }
+
+    public RedisDatabaseLeaserBuilder databasesPerServer(final int databasesPerServer) {
+        if (databasesPerServer < 1) throw new IllegalArgumentException("Databases per server must be at least 1");
+        this.databasesPerServer = databasesPerServer;
+        return this;
+    }
+
+    public RedisDatabaseLeaserBuilder maxServers(final int maxServers) {
+        if (maxServers < 1) throw new IllegalArgumentException("Max servers must be at least 1");
+        this.maxServers = maxServers;
+        return this;
+    }
+
+    public RedisDatabaseLeaserBuilder leaseTimeoutMilliseconds(final long leaseTimeoutMilliseconds) {
+        this.leaseTimeoutMilliseconds = leaseTimeoutMilliseconds;
+        return this;
+    }
+
+    public RedisDatabaseLeaser build() {
+        return new RedisDatabaseLeaser(serverBuilder, portProvider, databasesPerServer, maxServers,
+            leaseTimeoutMilliseconds);
+    }
+
+}
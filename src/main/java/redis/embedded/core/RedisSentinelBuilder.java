@@ -1,21 +1,22 @@
 package redis.embedded.core;
 
 import redis.embedded.RedisSentinel;
+import redis.embedded.model.RedisVersion;
+import redis.embedded.model.ShutdownMode;
+import redis.embedded.model.StartupStats;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static redis.embedded.Redis.DEFAULT_REDIS_PORT;
 import static redis.embedded.core.ExecutableProvider.newEmbeddedRedisProvider;
+import static redis.embedded.model.StartupPhase.CONFIG_MATERIALIZATION;
+import static redis.embedded.model.StartupPhase.EXECUTABLE_RESOLUTION;
 
 public final class RedisSentinelBuilder {
     private static final String
-        LINE_SEPARATOR = System.getProperty("line.separator"),
-        CONF_FILENAME = "embedded-redis-sentinel",
         LINE_MASTER_MONITOR = "sentinel monitor %s 127.0.0.1 %d %d",
         LINE_DOWN_AFTER = "sentinel down-after-milliseconds %s %d",
         LINE_FAIL_OVER = "sentinel failover-timeout %s %d",
@@ -33,9 +34,11 @@ public final class RedisSentinelBuilder {
     private int parallelSyncs = 1;
     private int quorumSize = 1;
     private String sentinelConf;
-    private boolean forceStop = false;
+    private Path workingDirectoryRoot;
+    private boolean strictDirectives = false;
+    private final LifecycleOptions options = new LifecycleOptions();
 
-    private StringBuilder redisConfigBuilder;
+    private RedisConfig redisConfig;
 
     public RedisSentinelBuilder executableProvider(final ExecutableProvider executableProvider) {
         this.executableProvider = executableProvider;
@@ -82,8 +85,13 @@ public final class RedisSentinelBuilder {
         return this;
     }
 
+    public RedisSentinelBuilder workingDirectoryRoot(final Path root) {
+        this.workingDirectoryRoot = root;
+        return this;
+    }
+
     public RedisSentinelBuilder configFile(final String redisConf) {
-        if (redisConfigBuilder != null) {
+        if (redisConfig != null) {
             throw new IllegalArgumentException("Redis configuration is already partially built using setting(String) method");
         }
         this.sentinelConf = redisConf;
@@ -100,38 +108,89 @@ public final class RedisSentinelBuilder {
             throw new IllegalArgumentException("Redis configuration is already set using redis conf file");
         }
 
-        if (redisConfigBuilder == null) {
-            redisConfigBuilder = new StringBuilder();
+        if (redisConfig == null) {
+            redisConfig = new RedisConfig();
         }
 
-        redisConfigBuilder.append(configLine).append(LINE_SEPARATOR);
+        redisConfig.add(configLine);
+        return this;
+    }
+
+    /** Fails the build on directives this library does not know, with a suggestion for the closest known one. */
+    public RedisSentinelBuilder strictDirectives(final boolean strictDirectives) {
+        this.strictDirectives = strictDirectives;
         return this;
     }
 
     public RedisSentinelBuilder onShutdownForceStop(final boolean forceStop) {
-        this.forceStop = forceStop;
+        options.forceStop(forceStop);
         return this;
     }
 
-    public RedisSentinel build() {
-        tryResolveConfAndExec();
-        return new RedisSentinel(port, buildCommandArgs(), forceStop);
+    public RedisSentinelBuilder shutdownMode(final ShutdownMode shutdownMode) {
+        options.shutdownMode(shutdownMode);
+        return this;
+    }
+
+    public RedisSentinelBuilder stopTimeoutsMilliseconds(final long shutdownTimeout, final long terminateTimeout, final long killTimeout) {
+        options.shutdownTimeoutMillis(shutdownTimeout)
+            .terminateTimeoutMillis(terminateTimeout)
+            .killTimeoutMillis(killTimeout);
+        return this;
+    }
+
+    public RedisSentinelBuilder readinessStrategy(final ReadinessStrategy readiness) {
+        options.readiness(readiness);
+        return this;
     }
 
-    private void tryResolveConfAndExec() {
+    public RedisSentinelBuilder startupTimeoutMilliseconds(final long startupTimeoutMilliseconds) {
+        options.startupTimeoutMillis(startupTimeoutMilliseconds);
+        return this;
+    }
+
+    public RedisSentinelBuilder logSink(final LogSink logSink) {
+        options.logSink(logSink);
+        return this;
+    }
+
+    public RedisSentinelBuilder logBufferLines(final int logBufferLines) {
+        options.logBufferLines(logBufferLines);
+        return this;
+    }
+
+    public RedisSentinel build() {
+        final StartupStats stats = new StartupStats();
+        final RedisConfig generated = tryResolveConfAndExec(stats);
+        final RedisSentinel sentinel = new RedisSentinel(port, buildCommandArgs(), options.copy().config(generated)
+            .workingDirectory(WorkingDirectories.newWorkingDirectory(workingDirectoryRoot != null
+                ? workingDirectoryRoot : WorkingDirectories.defaultRoot())));
+        sentinel.startupStats().recordAll(stats);
+        return sentinel;
+    }
+
+    @SuppressWarnings("try")
+    private RedisConfig tryResolveConfAndExec(final StartupStats stats) {
+        final String name = "RedisSentinel:" + port;
         try {
-            if (sentinelConf == null) {
-                resolveSentinelConf();
+            final RedisVersion version;
+            try (final StartupStats.PhaseTimer timer = stats.time(name, EXECUTABLE_RESOLUTION)) {
+                executable = executableProvider.get();
+                version = sentinelConf == null ? RedisVersion.of(executable) : null;
+            }
+            if (sentinelConf != null) return null;
+            try (final StartupStats.PhaseTimer timer = stats.time(name, CONFIG_MATERIALIZATION)) {
+                return resolveSentinelConf(version);
             }
-            executable = executableProvider.get();
         } catch (Exception e) {
             throw new IllegalArgumentException("Could not build sentinel instance", e);
         }
     }
 
     public void reset() {
-        this.redisConfigBuilder = null;
+        this.redisConfig = null;
         this.sentinelConf = null;
+        this.workingDirectoryRoot = null;
     }
 
     public void addDefaultReplicationGroup() {
@@ -141,28 +200,20 @@ public final class RedisSentinelBuilder {
         setting(String.format(LINE_PARALLEL_SYNCS, masterName, parallelSyncs));
     }
 
-    private void resolveSentinelConf() throws IOException {
-        if (redisConfigBuilder == null) {
+    // Sentinel insists on a config file it can rewrite, so the instance writes this into its working directory
+    private RedisConfig resolveSentinelConf(final RedisVersion version) {
+        if (redisConfig == null) {
             addDefaultReplicationGroup();
         }
         setting("bind " + bind);
         setting(String.format(LINE_PORT, port));
-        final String configString = redisConfigBuilder.toString();
-
-        File redisConfigFile = File.createTempFile(resolveConfigName(), ".conf");
-        redisConfigFile.deleteOnExit();
-        Files.write(redisConfigFile.toPath(), configString.getBytes(UTF_8));
-        sentinelConf = redisConfigFile.getAbsolutePath();
-    }
-
-    private String resolveConfigName() {
-        return CONF_FILENAME + "_" + port;
+        return redisConfig.copy().validate(version, strictDirectives);
     }
 
     private List<String> buildCommandArgs() {
         List<String> args = new ArrayList<>();
         args.add(executable.getAbsolutePath());
-        args.add(sentinelConf);
+        if (sentinelConf != null) args.add(sentinelConf);
         args.add("--sentinel");
 
         if (port != null) {
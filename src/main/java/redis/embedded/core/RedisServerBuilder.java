@@ -1,6 +1,10 @@
 package redis.embedded.core;
 
+import redis.embedded.LazyRedisServer;
 import redis.embedded.RedisServer;
+import redis.embedded.model.RedisVersion;
+import redis.embedded.model.ShutdownMode;
+import redis.embedded.model.StartupStats;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,22 +15,32 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static redis.embedded.Redis.DEFAULT_REDIS_PORT;
 import static redis.embedded.core.ExecutableProvider.newEmbeddedRedisProvider;
+import static redis.embedded.model.StartupPhase.CONFIG_MATERIALIZATION;
+import static redis.embedded.model.StartupPhase.EXECUTABLE_RESOLUTION;
 
 public final class RedisServerBuilder {
 
-    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final String
+        UNIX_SOCKET_PERMISSIONS = "700",
+        UNIX_SOCKET_FILE_NAME = "redis.sock";
 
     private File executable;
     private ExecutableProvider provider = newEmbeddedRedisProvider();
     private String bindAddress = "127.0.0.1";
     private int bindPort = DEFAULT_REDIS_PORT;
     private InetSocketAddress slaveOf;
-    private boolean forceStop = false;
+    private Path dataset;
+    private Path unixSocket;
+    private boolean unixSocketInWorkingDirectory;
+    private Path workingDirectoryRoot;
+    private long handoffAfterIdleMillis = 0;
+    private boolean strictDirectives = false;
+    private LifecycleOptions options = new LifecycleOptions();
+    private final List<ServerProfile> profiles = new ArrayList<>();
 
-    private StringBuilder redisConfigBuilder = new StringBuilder();
+    private RedisConfig config = new RedisConfig();
 
     public RedisServerBuilder executableProvider(final ExecutableProvider provider) {
         this.provider = provider;
@@ -40,6 +54,31 @@ public final class RedisServerBuilder {
 
     public RedisServerBuilder port(final int port) {
         this.bindPort = port;
+        options.rebindOnConflict(false).portLeased(false);
+        return this;
+    }
+
+    public RedisServerBuilder unixSocket(final Path socket) {
+        this.unixSocket = socket.toAbsolutePath();
+        this.unixSocketInWorkingDirectory = false;
+        return this;
+    }
+
+    public RedisServerBuilder unixSocketOnly() {
+        if (unixSocket == null) unixSocketInWorkingDirectory = true;
+        this.bindPort = 0;
+        options.rebindOnConflict(false).portLeased(false);
+        return this;
+    }
+
+    public RedisServerBuilder leasedPort() {
+        this.bindPort = PortLeases.shared().lease();
+        options.rebindOnConflict(true).portLeased(true);
+        return this;
+    }
+
+    public RedisServerBuilder workingDirectoryRoot(final Path root) {
+        this.workingDirectoryRoot = root;
         return this;
     }
 
@@ -53,11 +92,28 @@ public final class RedisServerBuilder {
         return this;
     }
 
+    public RedisServerBuilder dataset(final Path rdbFile) {
+        if (rdbFile != null && !Files.isRegularFile(rdbFile))
+            throw new IllegalArgumentException("Dataset " + rdbFile + " is not a file");
+        this.dataset = rdbFile;
+        return this;
+    }
+
     public RedisServerBuilder configFile(final String redisConf) throws IOException {
         return configFile(Paths.get(redisConf));
     }
     public RedisServerBuilder configFile(final Path redisConf) throws IOException {
-        Files.lines(redisConf).forEach(line -> redisConfigBuilder.append(line).append(LINE_SEPARATOR));
+        config.merge(RedisConfig.parse(redisConf));
+        return this;
+    }
+
+    public RedisServerBuilder config(final RedisConfig redisConfig) {
+        config.merge(redisConfig);
+        return this;
+    }
+
+    public RedisServerBuilder profile(final ServerProfile profile) {
+        profiles.add(profile);
         return this;
     }
 
@@ -67,39 +123,152 @@ public final class RedisServerBuilder {
     }
 
     public RedisServerBuilder setting(final String configLine) {
-        redisConfigBuilder.append(configLine).append(LINE_SEPARATOR);
+        config.add(configLine);
+        return this;
+    }
+
+    /** Fails the build on directives this library does not know, with a suggestion for the closest known one. */
+    public RedisServerBuilder strictDirectives(final boolean strictDirectives) {
+        this.strictDirectives = strictDirectives;
         return this;
     }
 
     public RedisServerBuilder onShutdownForceStop(final boolean forceStop) {
-        this.forceStop = forceStop;
+        options.forceStop(forceStop);
+        return this;
+    }
+
+    public RedisServerBuilder shutdownMode(final ShutdownMode shutdownMode) {
+        options.shutdownMode(shutdownMode);
+        return this;
+    }
+
+    public RedisServerBuilder stopTimeoutsMilliseconds(final long shutdownTimeout, final long terminateTimeout, final long killTimeout) {
+        options.shutdownTimeoutMillis(shutdownTimeout)
+            .terminateTimeoutMillis(terminateTimeout)
+            .killTimeoutMillis(killTimeout);
+        return this;
+    }
+
+    public RedisServerBuilder readinessStrategy(final ReadinessStrategy readiness) {
+        options.readiness(readiness);
+        return this;
+    }
+
+    public RedisServerBuilder startupTimeoutMilliseconds(final long startupTimeoutMilliseconds) {
+        options.startupTimeoutMillis(startupTimeoutMilliseconds);
+        return this;
+    }
+
+    public RedisServerBuilder logSink(final LogSink logSink) {
+        options.logSink(logSink);
+        return this;
+    }
+
+    public RedisServerBuilder logBufferLines(final int logBufferLines) {
+        options.logBufferLines(logBufferLines);
         return this;
     }
 
     public RedisServer build() throws IOException {
-        return new RedisServer(bindPort, buildCommandArgs(), forceStop);
+        final StartupStats stats = new StartupStats();
+        final Path workingDirectory = newWorkingDirectory();
+        final Path socket = unixSocketIn(workingDirectory);
+        final RedisServer server = new RedisServer(bindPort, buildCommandArgs(stats, socket), options.copy()
+            .dataset(dataset).unixSocket(socket).workingDirectory(workingDirectory));
+        server.startupStats().recordAll(stats);
+        return server;
+    }
+
+    /**
+     * Binds the port right away but only starts Redis when the first client connects. The server runs on a leased
+     * private port behind a relay until then. The private port is only leased again when Redis starts, so a server
+     * nobody connects to holds no lease.
+     */
+    public LazyRedisServer buildLazy() throws IOException {
+        if (bindPort == 0) throw new IllegalArgumentException("A lazy Redis server needs a TCP port");
+        // Any port from the lease range will do, the backend leases it, or another one, when it starts
+        final int privatePort = PortLeases.shared().lease();
+        PortLeases.shared().release(privatePort);
+        final RedisServerBuilder backendBuilder = copy().port(privatePort);
+        backendBuilder.options.rebindOnConflict(true);
+        final RedisServer backend = backendBuilder.build();
+        if (handoffAfterIdleMillis > 0 && !RedisVersion.of(backendBuilder.executable).atLeast(7, 0))
+            throw new IllegalArgumentException("Handing the port over to Redis needs CONFIG SET port from Redis 7.0, "
+                + "the selected binary is " + RedisVersion.of(backendBuilder.executable));
+        return new LazyRedisServer(bindAddress, bindPort, backend, handoffAfterIdleMillis);
+    }
+
+    /** Lets a lazy server hand its port to Redis after the relay has been idle this long. Needs Redis 7.0. */
+    public RedisServerBuilder handoffAfterIdleMilliseconds(final long handoffAfterIdleMillis) {
+        this.handoffAfterIdleMillis = handoffAfterIdleMillis;
+        return this;
+    }
+
+    /** An independent builder with the same settings, for callers that derive servers from a shared template. */
+    public RedisServerBuilder copy() {
+        final RedisServerBuilder copy = new RedisServerBuilder();
+        copy.executable = executable;
+        copy.provider = provider;
+        copy.bindAddress = bindAddress;
+        copy.bindPort = bindPort;
+        copy.slaveOf = slaveOf;
+        copy.dataset = dataset;
+        copy.unixSocket = unixSocket;
+        copy.unixSocketInWorkingDirectory = unixSocketInWorkingDirectory;
+        copy.workingDirectoryRoot = workingDirectoryRoot;
+        copy.handoffAfterIdleMillis = handoffAfterIdleMillis;
+        copy.strictDirectives = strictDirectives;
+        copy.options = options.copy();
+        copy.profiles.addAll(profiles);
+        copy.config = config.copy();
+        return copy;
     }
 
     public void reset() {
         this.executable = null;
         this.slaveOf = null;
-        this.redisConfigBuilder = new StringBuilder();
+        this.dataset = null;
+        this.unixSocket = null;
+        this.unixSocketInWorkingDirectory = false;
+        this.workingDirectoryRoot = null;
+        this.handoffAfterIdleMillis = 0;
+        this.strictDirectives = false;
+        this.config = new RedisConfig();
+        this.profiles.clear();
         this.provider = newEmbeddedRedisProvider();
         this.bindAddress = "127.0.0.1";
         this.bindPort = DEFAULT_REDIS_PORT;
     }
 
     public List<String> buildCommandArgs() throws IOException {
-        setting("bind " + bindAddress);
-
-        final Path redisConfigFile =
-            writeNewRedisConfigFile("embedded-redis-server_"+bindPort, redisConfigBuilder.toString());
+        return buildCommandArgs(new StartupStats(), unixSocketIn(newWorkingDirectory()));
+    }
 
-        executable = provider.get();
+    @SuppressWarnings("try")
+    private List<String> buildCommandArgs(final StartupStats stats, final Path unixSocket) throws IOException {
+        final String name = "RedisServer:" + bindPort;
+        final RedisVersion version;
+        try (final StartupStats.PhaseTimer timer = stats.time(name, EXECUTABLE_RESOLUTION)) {
+            executable = provider.get();
+            version = RedisVersion.of(executable);
+        }
+        final RedisConfig effective = new RedisConfig();
+        try (final StartupStats.PhaseTimer timer = stats.time(name, CONFIG_MATERIALIZATION)) {
+            for (final ServerProfile profile : profiles) {
+                for (final String line : profile.settings(version)) effective.add(line);
+            }
+            effective.merge(config).remove("port").add("bind " + bindAddress);
+            if (unixSocket != null) {
+                effective.add("unixsocket", unixSocket.toString())
+                    .add("unixsocketperm", UNIX_SOCKET_PERMISSIONS);
+            }
+            effective.validate(version, strictDirectives);
+        }
 
         final List<String> args = new ArrayList<>();
         args.add(executable.getAbsolutePath());
-        args.add(redisConfigFile.toAbsolutePath().toString());
+        args.addAll(effective.toArgs());
         args.add("--port");
         args.add(Integer.toString(bindPort));
 
@@ -112,11 +281,13 @@ public final class RedisServerBuilder {
         return args;
     }
 
-    private static Path writeNewRedisConfigFile(final String prefix, final String contents) throws IOException {
-        final Path redisConfigFile = Files.createTempFile(prefix, ".conf");
-        redisConfigFile.toFile().deleteOnExit();
-        Files.write(redisConfigFile, contents.getBytes(UTF_8));
-        return redisConfigFile;
+    private Path newWorkingDirectory() {
+        return WorkingDirectories.newWorkingDirectory(workingDirectoryRoot != null
+            ? workingDirectoryRoot : WorkingDirectories.defaultRoot());
+    }
+
+    private Path unixSocketIn(final Path workingDirectory) {
+        return unixSocketInWorkingDirectory ? workingDirectory.resolve(UNIX_SOCKET_FILE_NAME) : unixSocket;
     }
 
 }
@@ -0,0 +1,54 @@
+package redis.embedded.core;
+
+import redis.embedded.RedisServerPool;
+
+import static redis.embedded.core.PortProvider.newLeasedPortProvider;
+
+public final class RedisServerPoolBuilder {
+
+    private RedisServerBuilder serverBuilder = new RedisServerBuilder();
+    private PortProvider portProvider = newLeasedPortProvider();
+    private int size = 2;
+    private int maxUses = 100;
+    private long leaseTimeoutMilliseconds = 30000L;
+    private int startParallelism = 2;
+
+    public RedisServerPoolBuilder withServerBuilder(final RedisServerBuilder serverBuilder) {
+        this.serverBuilder = serverBuilder;
+        return this;
+    }
+
+    public RedisServerPoolBuilder portProvider(final PortProvider portProvider) {
+        this.portProvider = portProvider;
+        return this;
+    }
+
+    public RedisServerPoolBuilder size(final int size) {
+        if (size < 1) throw new IllegalArgumentException("Pool size must be at least 1");
+        this.size = size;
+        return this;
+    }
+
+    public RedisServerPoolBuilder maxUses(final int maxUses) {
+        if (maxUses < 1) throw new IllegalArgumentException("Max uses must be at least 1");
+        this.maxUses = maxUses;
+        return this;
+    }
+
+    public RedisServerPoolBuilder leaseTimeoutMilliseconds(final long leaseTimeoutMilliseconds) {
+        this.leaseTimeoutMilliseconds = leaseTimeoutMilliseconds;
+        return this;
+    }
+
+    public RedisServerPoolBuilder startParallelism(final int startParallelism) {
+        if (startParallelism < 1) throw new IllegalArgumentException("Start parallelism must be at least 1");
+        this.startParallelism = startParallelism;
+        return this;
+    }
+
+    public RedisServerPool build() {
+        return new RedisServerPool(serverBuilder, portProvider, size, maxUses, leaseTimeoutMilliseconds,
+            Math.min(startParallelism, size)).warmUp();
+    }
+
+}
@@ -0,0 +1,108 @@
+package redis.embedded.core;
+
+import redis.embedded.RedisServer;
+import redis.embedded.RedisShardedCluster;
+import redis.embedded.model.ClusterShard;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static redis.embedded.RedisCluster.DEFAULT_PARALLELISM;
+import static redis.embedded.core.PortProvider.*;
+import static redis.embedded.util.ClusterSlots.SLOT_COUNT;
+
+public final class RedisShardedClusterBuilder {
+
+    public static final long DEFAULT_FORMATION_TIMEOUT_MILLISECONDS = 30000L;
+
+    private RedisServerBuilder serverBuilder = new RedisServerBuilder();
+    private PortProvider portProvider = newSequencePortProvider(7000);
+    private int shards = 3;
+    private int replicasPerShard = 0;
+    private long nodeTimeoutMillis = 5000L;
+    private long formationTimeoutMillis = DEFAULT_FORMATION_TIMEOUT_MILLISECONDS;
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    public RedisShardedClusterBuilder withServerBuilder(final RedisServerBuilder serverBuilder) {
+        this.serverBuilder = serverBuilder;
+        return this;
+    }
+
+    public RedisShardedClusterBuilder serverPorts(final Collection<Integer> ports) {
+        this.portProvider = newPredefinedPortProvider(ports);
+        return this;
+    }
+
+    public RedisShardedClusterBuilder startingPort(final int startingPort) {
+        this.portProvider = newSequencePortProvider(startingPort);
+        return this;
+    }
+
+    public RedisShardedClusterBuilder ephemeral() {
+        this.portProvider = newEphemeralClusterPortProvider();
+        return this;
+    }
+
+    public RedisShardedClusterBuilder shards(final int shards) {
+        if (shards < 1 || shards > SLOT_COUNT) throw new IllegalArgumentException("Shard count must be between 1 and " + SLOT_COUNT);
+        this.shards = shards;
+        return this;
+    }
+
+    public RedisShardedClusterBuilder replicasPerShard(final int replicasPerShard) {
+        if (replicasPerShard < 0) throw new IllegalArgumentException("Replica count can not be negative");
+        this.replicasPerShard = replicasPerShard;
+        return this;
+    }
+
+    public RedisShardedClusterBuilder nodeTimeoutMilliseconds(final long nodeTimeoutMillis) {
+        this.nodeTimeoutMillis = nodeTimeoutMillis;
+        return this;
+    }
+
+    public RedisShardedClusterBuilder formationTimeoutMilliseconds(final long formationTimeoutMillis) {
+        this.formationTimeoutMillis = formationTimeoutMillis;
+        return this;
+    }
+
+    public RedisShardedClusterBuilder parallelism(final int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public RedisShardedCluster build() throws IOException {
+        final Map<ClusterShard, List<RedisServer>> nodes = new LinkedHashMap<>();
+        for (int shard = 0; shard < shards; shard++) {
+            final int firstSlot = shard * SLOT_COUNT / shards;
+            final int lastSlot = (shard + 1) * SLOT_COUNT / shards - 1;
+
+            final List<RedisServer> servers = new ArrayList<>();
+            final int masterPort = portProvider.get();
+            servers.add(buildNode(masterPort));
+            final List<Integer> replicaPorts = new ArrayList<>();
+            for (int replica = 0; replica < replicasPerShard; replica++) {
+                final int replicaPort = portProvider.get();
+                replicaPorts.add(replicaPort);
+                servers.add(buildNode(replicaPort));
+            }
+            nodes.put(new ClusterShard(masterPort, replicaPorts, firstSlot, lastSlot), servers);
+        }
+        return new RedisShardedCluster(nodes, formationTimeoutMillis, parallelism);
+    }
+
+    private RedisServer buildNode(final int port) throws IOException {
+        serverBuilder.reset();
+        return serverBuilder
+            .port(port)
+            .setting("cluster-enabled yes")
+            .setting("cluster-config-file nodes-" + port + ".conf")
+            .setting("cluster-node-timeout " + nodeTimeoutMillis)
+            .setting("appendonly no")
+            .build();
+    }
+
+}
@@ -0,0 +1,48 @@
+package redis.embedded.core;
+
+import redis.embedded.ResourceSampler;
+
+import static redis.embedded.core.SampleListener.newLoggerSampleListener;
+
+public final class ResourceSamplerBuilder {
+
+    private long intervalMilliseconds = 1000L;
+    private boolean sampleInfo = true;
+    private int infoEveryNthSample = 1;
+    private int timeoutMilliseconds = 500;
+    private SampleListener listener = newLoggerSampleListener();
+
+    public ResourceSamplerBuilder intervalMilliseconds(final long intervalMilliseconds) {
+        if (intervalMilliseconds < 1) throw new IllegalArgumentException("Sampling interval must be at least 1ms");
+        this.intervalMilliseconds = intervalMilliseconds;
+        return this;
+    }
+
+    public ResourceSamplerBuilder sampleInfo(final boolean sampleInfo) {
+        this.sampleInfo = sampleInfo;
+        return this;
+    }
+
+    // INFO costs a round trip and some server time; reading it less often than /proc keeps the overhead down
+    public ResourceSamplerBuilder infoEveryNthSample(final int infoEveryNthSample) {
+        if (infoEveryNthSample < 1) throw new IllegalArgumentException("INFO must be read at least every sample");
+        this.infoEveryNthSample = infoEveryNthSample;
+        return this;
+    }
+
+    public ResourceSamplerBuilder timeoutMilliseconds(final int timeoutMilliseconds) {
+        this.timeoutMilliseconds = timeoutMilliseconds;
+        return this;
+    }
+
+    public ResourceSamplerBuilder listener(final SampleListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public ResourceSampler build() {
+        return new ResourceSampler(intervalMilliseconds, sampleInfo, infoEveryNthSample, timeoutMilliseconds, listener)
+            .start();
+    }
+
+}
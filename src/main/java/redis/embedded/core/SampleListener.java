@@ -0,0 +1,51 @@
+package redis.embedded.core;
+
+import redis.embedded.model.ResourceSample;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public interface SampleListener {
+
+    void accept(ResourceSample sample);
+
+    default SampleListener and(final SampleListener other) {
+        return sample -> {
+            accept(sample);
+            other.accept(sample);
+        };
+    }
+
+    static SampleListener newLoggerSampleListener() {
+        return newLoggerSampleListener("redis.embedded.resources");
+    }
+    static SampleListener newLoggerSampleListener(final String loggerName) {
+        final Logger logger = Logger.getLogger(loggerName);
+        return sample -> {
+            if (logger.isLoggable(Level.FINE)) logger.log(Level.FINE, "{0}", sample);
+        };
+    }
+
+    /**
+     * Flattens every sample into named gauges, one call per value, so it can feed a metrics library such as
+     * Micrometer without this library depending on it. Values that were not read are skipped.
+     */
+    static SampleListener newMetricSampleListener(final MetricSink sink) {
+        return sample -> {
+            if (sample.rssBytes >= 0) sink.gauge("redis.embedded.process.rss", sample.instance, sample.rssBytes);
+            if (sample.cpuTimeNanos >= 0) sink.gauge("redis.embedded.process.cpu.time", sample.instance, sample.cpuTimeNanos);
+            if (!Double.isNaN(sample.cpuUtilization))
+                sink.gauge("redis.embedded.process.cpu.usage", sample.instance, sample.cpuUtilization);
+            if (sample.opsPerSecond >= 0) sink.gauge("redis.embedded.ops.per.second", sample.instance, sample.opsPerSecond);
+            if (sample.usedMemoryBytes >= 0) sink.gauge("redis.embedded.memory.used", sample.instance, sample.usedMemoryBytes);
+            if (sample.connectedClients >= 0) sink.gauge("redis.embedded.clients.connected", sample.instance, sample.connectedClients);
+            if (sample.keyspaceHits >= 0) sink.gauge("redis.embedded.keyspace.hits", sample.instance, sample.keyspaceHits);
+            if (sample.keyspaceMisses >= 0) sink.gauge("redis.embedded.keyspace.misses", sample.instance, sample.keyspaceMisses);
+        };
+    }
+
+    interface MetricSink {
+        void gauge(String name, String instance, double value);
+    }
+
+}
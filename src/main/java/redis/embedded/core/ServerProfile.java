@@ -0,0 +1,78 @@
+package redis.embedded.core;
+
+import redis.embedded.model.RedisVersion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A named set of config lines for {@link RedisServerBuilder#profile(ServerProfile)}. Profiles are resolved against the
+ * version of the binary that will actually run, so they can leave out or reject directives the binary does not know.
+ * Lines set with {@code setting(...)} come after the profile and win where a directive takes a single value.
+ */
+public interface ServerProfile {
+
+    int MAX_IO_THREADS = 128;
+
+    List<String> settings(RedisVersion version);
+
+    default ServerProfile and(final ServerProfile next) {
+        return version -> {
+            final List<String> settings = new ArrayList<>(settings(version));
+            settings.addAll(next.settings(version));
+            return settings;
+        };
+    }
+
+    /**
+     * No RDB snapshots, no AOF and background freeing wherever the binary supports it. Replicas sync without
+     * touching disk. Meant for tests that only care about throughput.
+     */
+    static ServerProfile ephemeralFast() {
+        return version -> Directives.supported(version,
+            "save \"\"",
+            "appendonly no",
+            "appendfsync no",
+            "repl-diskless-sync yes",
+            "repl-diskless-sync-delay 0",
+            "lazyfree-lazy-eviction yes",
+            "lazyfree-lazy-expire yes",
+            "lazyfree-lazy-server-del yes",
+            "replica-lazy-flush yes",
+            "lazyfree-lazy-user-del yes",
+            "lazyfree-lazy-user-flush yes");
+    }
+
+    static ServerProfile multiCoreIo() {
+        return multiCoreIo(defaultIoThreads());
+    }
+    static ServerProfile multiCoreIo(final int threads) {
+        if (threads < 1 || threads > MAX_IO_THREADS)
+            throw new IllegalArgumentException("io-threads must be between 1 and " + MAX_IO_THREADS + ", got " + threads);
+        return version -> Directives.required(version,
+            "io-threads " + threads,
+            "io-threads-do-reads yes");
+    }
+
+    /**
+     * Replays a production redis.conf, persistence included. Directives that decide where the process runs, listens
+     * and logs (daemonize, supervised, pidfile, logfile, dir, port, bind, unixsocket) are left out so the server
+     * stays embedded. A file that uses include is rejected, because the included files are not replayed. The file
+     * is read once, when the profile is created.
+     */
+    static ServerProfile productionLike(final Path redisConf) throws IOException {
+        final RedisConfig config = RedisConfig.parse(redisConf);
+        if (config.get("include") != null)
+            throw new IllegalArgumentException("Can not replay " + redisConf + ", it includes other config files");
+        for (final String directive : Directives.OWNED_BY_EMBEDDING) config.remove(directive);
+        final String[] settings = config.lines().toArray(new String[0]);
+        return version -> Directives.required(version, settings);
+    }
+
+    static int defaultIoThreads() {
+        return Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+}
@@ -0,0 +1,68 @@
+package redis.embedded.core;
+
+import redis.embedded.SharedRedis;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import static redis.embedded.RedisCluster.newRedisCluster;
+import static redis.embedded.RedisServer.newRedisServer;
+
+public final class SharedRedisBuilder {
+
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private Path directory = SharedRedis.defaultSharedDirectory();
+    private String name = "default";
+    private SharedRedis.Factory factory = () -> newRedisServer().leasedPort().build();
+    private long heartbeatMilliseconds = 1000L;
+    private long leaseExpiryMilliseconds = 10000L;
+
+    public SharedRedisBuilder directory(final Path directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /** JVMs attaching under the same name in the same directory share one instance. */
+    public SharedRedisBuilder name(final String name) {
+        if (!VALID_NAME.matcher(name).matches())
+            throw new IllegalArgumentException("Shared Redis name '" + name + "' must be usable as a file name");
+        this.name = name;
+        return this;
+    }
+
+    public SharedRedisBuilder withServerBuilder(final RedisServerBuilder serverBuilder) {
+        this.factory = serverBuilder::build;
+        return this;
+    }
+
+    public SharedRedisBuilder withClusterBuilder(final RedisClusterBuilder clusterBuilder) {
+        this.factory = clusterBuilder::build;
+        return this;
+    }
+
+    public SharedRedisBuilder ephemeralCluster() {
+        this.factory = () -> newRedisCluster().ephemeral().build();
+        return this;
+    }
+
+    public SharedRedisBuilder heartbeatMilliseconds(final long heartbeatMilliseconds) {
+        if (heartbeatMilliseconds < 1) throw new IllegalArgumentException("Heartbeat interval must be at least 1ms");
+        this.heartbeatMilliseconds = heartbeatMilliseconds;
+        return this;
+    }
+
+    /** Leases not renewed for this long are dropped, so a JVM that died does not keep the instance alive. */
+    public SharedRedisBuilder leaseExpiryMilliseconds(final long leaseExpiryMilliseconds) {
+        this.leaseExpiryMilliseconds = leaseExpiryMilliseconds;
+        return this;
+    }
+
+    public SharedRedis attach() throws IOException {
+        if (leaseExpiryMilliseconds <= heartbeatMilliseconds)
+            throw new IllegalArgumentException("Leases must outlive at least one heartbeat");
+        return SharedRedis.attach(directory, name, factory, heartbeatMilliseconds, leaseExpiryMilliseconds);
+    }
+
+}
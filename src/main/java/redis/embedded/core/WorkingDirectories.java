@@ -0,0 +1,36 @@
+package redis.embedded.core;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Every instance gets its own working directory for {@code dump.rdb}, AOF files and {@code nodes.conf}. They live
+ * under {@code /dev/shm} when the machine has it, so persistence never touches a disk, and are removed when the
+ * instance stops.
+ */
+public enum WorkingDirectories {;
+
+    public static final String
+        PROPERTY_WORK_DIRECTORY = "embedded.redis.work.dir",
+        ENVIRONMENT_WORK_DIRECTORY = "EMBEDDED_REDIS_WORK_DIR";
+
+    private static final Path SHARED_MEMORY = Paths.get("/dev/shm");
+    private static final String DIRECTORY_NAME = "embedded-redis";
+
+    public static Path defaultRoot() {
+        final String property = System.getProperty(PROPERTY_WORK_DIRECTORY);
+        if (property != null && !property.isEmpty()) return Paths.get(property);
+        final String environment = System.getenv(ENVIRONMENT_WORK_DIRECTORY);
+        if (environment != null && !environment.isEmpty()) return Paths.get(environment);
+        if (Files.isDirectory(SHARED_MEMORY) && Files.isWritable(SHARED_MEMORY)) return SHARED_MEMORY.resolve(DIRECTORY_NAME);
+        return Paths.get(System.getProperty("java.io.tmpdir"), DIRECTORY_NAME);
+    }
+
+    // Only picks the name; the instance creates the directory when it starts and removes it when it stops
+    public static Path newWorkingDirectory(final Path root) {
+        return root.toAbsolutePath().resolve("redis-" + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1));
+    }
+
+}
@@ -0,0 +1,9 @@
+package redis.embedded.error;
+
+import java.io.IOException;
+
+public class RespError extends IOException {
+    public RespError(final String message) {
+        super(message);
+    }
+}
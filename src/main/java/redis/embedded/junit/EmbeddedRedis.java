@@ -0,0 +1,24 @@
+package redis.embedded.junit;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.*;
+
+/**
+ * Starts a Redis server for a JUnit 5 test class or method. Test methods, lifecycle methods and constructors can
+ * take the {@link redis.embedded.RedisServer}, its {@link redis.embedded.model.Endpoint} or a {@link RedisPort}
+ * annotated {@code int}. An annotation on a method overrides the one on its class.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@ExtendWith(EmbeddedRedisExtension.class)
+public @interface EmbeddedRedis {
+
+    Lifecycle lifecycle() default Lifecycle.PER_CLASS;
+
+    /** Config lines such as {@code "maxmemory 64mb"}. Suite servers are shared by classes with the same settings. */
+    String[] settings() default {};
+
+}
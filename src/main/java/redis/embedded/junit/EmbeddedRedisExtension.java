@@ -0,0 +1,87 @@
+package redis.embedded.junit;
+
+import org.junit.jupiter.api.extension.*;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.platform.commons.support.AnnotationSupport;
+import redis.embedded.Redis;
+import redis.embedded.RedisServer;
+import redis.embedded.model.Endpoint;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Usually registered through {@link EmbeddedRedis}. Servers live in the store of the method, class or root context
+ * that matches their {@link Lifecycle}, so JUnit stops them when that context closes.
+ */
+public final class EmbeddedRedisExtension implements BeforeEachCallback, ParameterResolver {
+
+    private static final Namespace NAMESPACE = Namespace.create(EmbeddedRedisExtension.class);
+
+    public void beforeEach(final ExtensionContext context) throws IOException {
+        server(context);
+    }
+
+    public boolean supportsParameter(final ParameterContext parameter, final ExtensionContext context) {
+        final Class<?> type = parameter.getParameter().getType();
+        if (type == RedisServer.class || type == Redis.class || type == Endpoint.class) return true;
+        return (type == int.class || type == Integer.class) && parameter.isAnnotated(RedisPort.class);
+    }
+
+    public Object resolveParameter(final ParameterContext parameter, final ExtensionContext context) {
+        final RedisServer server;
+        try {
+            server = server(context);
+        } catch (IOException e) {
+            throw new ParameterResolutionException("Could not start embedded Redis", e);
+        }
+        final Class<?> type = parameter.getParameter().getType();
+        if (type == Endpoint.class) return server.endpoints().get(0);
+        if (type == int.class || type == Integer.class) return server.ports().get(0);
+        return server;
+    }
+
+    private static RedisServer server(final ExtensionContext context) throws IOException {
+        final Optional<EmbeddedRedis> annotation = findAnnotation(context);
+        final Lifecycle lifecycle = annotation.map(EmbeddedRedis::lifecycle).orElse(Lifecycle.PER_CLASS);
+        final List<String> settings = annotation.map(a -> Arrays.asList(a.settings())).orElse(Collections.emptyList());
+
+        final ExtensionContext owner = owner(context, lifecycle);
+        return owner.getStore(NAMESPACE).getOrComputeIfAbsent(settings,
+            key -> new StoredServers(new WorkerServers(settings)), StoredServers.class).servers.current();
+    }
+
+    private static ExtensionContext owner(final ExtensionContext context, final Lifecycle lifecycle) {
+        switch (lifecycle) {
+            case PER_SUITE: return context.getRoot();
+            case PER_CLASS: return context.getTestMethod().isPresent() ? context.getParent().orElse(context) : context;
+            default: return context;
+        }
+    }
+
+    private static Optional<EmbeddedRedis> findAnnotation(final ExtensionContext context) {
+        final Optional<EmbeddedRedis> onMethod = AnnotationSupport.findAnnotation(context.getTestMethod(), EmbeddedRedis.class);
+        if (onMethod.isPresent()) return onMethod;
+        for (Class<?> type = context.getTestClass().orElse(null); type != null; type = type.getEnclosingClass()) {
+            final Optional<EmbeddedRedis> onClass = AnnotationSupport.findAnnotation(type, EmbeddedRedis.class);
+            if (onClass.isPresent()) return onClass;
+        }
+        return Optional.empty();
+    }
+
+    private static final class StoredServers implements ExtensionContext.Store.CloseableResource {
+        private final WorkerServers servers;
+
+        private StoredServers(final WorkerServers servers) {
+            this.servers = servers;
+        }
+
+        public void close() throws IOException {
+            servers.close();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package redis.embedded.junit;
+
+import org.junit.rules.ExternalResource;
+import redis.embedded.RedisServer;
+import redis.embedded.model.Endpoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit 4 counterpart of {@link EmbeddedRedis}. Used as a {@code @Rule} every test gets a fresh server, as a
+ * {@code @ClassRule} the methods of the class share one. With {@link #sharedBySuite()} the server outlives the class
+ * and is reused by every rule with the same settings until the JVM exits. Tests running in parallel each get their
+ * own server.
+ */
+public final class EmbeddedRedisRule extends ExternalResource {
+
+    private final List<String> settings = new ArrayList<>();
+    private boolean sharedBySuite = false;
+    private WorkerServers servers;
+
+    public static EmbeddedRedisRule newEmbeddedRedisRule() {
+        return new EmbeddedRedisRule();
+    }
+
+    public EmbeddedRedisRule setting(final String configLine) {
+        settings.add(configLine);
+        return this;
+    }
+
+    public EmbeddedRedisRule sharedBySuite() {
+        this.sharedBySuite = true;
+        return this;
+    }
+
+    protected void before() throws IOException {
+        servers = sharedBySuite ? WorkerServers.suite(settings) : new WorkerServers(settings);
+        servers.current();
+    }
+
+    protected void after() {
+        if (sharedBySuite || servers == null) return;
+        try {
+            servers.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            servers = null;
+        }
+    }
+
+    public RedisServer server() {
+        if (servers == null) throw new IllegalStateException("Embedded Redis rule is not active");
+        try {
+            return servers.current();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int port() {
+        return server().ports().get(0);
+    }
+
+    public Endpoint endpoint() {
+        return server().endpoints().get(0);
+    }
+
+}
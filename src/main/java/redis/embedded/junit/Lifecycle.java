@@ -0,0 +1,10 @@
+package redis.embedded.junit;
+
+public enum Lifecycle {
+    /** A fresh server for every test method. */
+    PER_METHOD,
+    /** One server for all methods of a test class. */
+    PER_CLASS,
+    /** One server for the whole test run, reused by every class with the same settings. */
+    PER_SUITE
+}
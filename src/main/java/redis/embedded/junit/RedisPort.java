@@ -0,0 +1,10 @@
+package redis.embedded.junit;
+
+import java.lang.annotation.*;
+
+/** Marks an {@code int} parameter that should receive the port of the embedded server. */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface RedisPort {
+}
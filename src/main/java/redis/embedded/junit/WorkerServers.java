@@ -0,0 +1,66 @@
+package redis.embedded.junit;
+
+import redis.embedded.RedisServer;
+import redis.embedded.core.RedisServerBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static redis.embedded.RedisServer.newRedisServer;
+
+/**
+ * The servers of one scope, one per thread that asks for it. Sequential runs only ever see one thread; parallel runs
+ * give every worker its own server so concurrent tests never share a keyspace.
+ */
+final class WorkerServers implements AutoCloseable {
+
+    private static final Map<List<String>, WorkerServers> SUITE = new ConcurrentHashMap<>();
+
+    private final List<String> settings;
+    private final Map<Thread, RedisServer> servers = new ConcurrentHashMap<>();
+
+    WorkerServers(final List<String> settings) {
+        this.settings = Collections.unmodifiableList(new ArrayList<>(settings));
+    }
+
+    // Never closed; the servers are stopped by the shutdown hook every instance registers
+    static WorkerServers suite(final List<String> settings) {
+        return SUITE.computeIfAbsent(new ArrayList<>(settings), WorkerServers::new);
+    }
+
+    RedisServer current() throws IOException {
+        final Thread thread = Thread.currentThread();
+        RedisServer server = servers.get(thread);
+        if (server == null || !server.isActive()) {
+            server = start();
+            servers.put(thread, server);
+        }
+        return server;
+    }
+
+    private RedisServer start() throws IOException {
+        final RedisServerBuilder builder = newRedisServer().leasedPort();
+        for (final String setting : settings) builder.setting(setting);
+        final RedisServer server = builder.build();
+        server.start();
+        return server;
+    }
+
+    public void close() throws IOException {
+        IOException failure = null;
+        for (final RedisServer server : servers.values()) {
+            try {
+                server.stop();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        servers.clear();
+        if (failure != null) throw failure;
+    }
+
+}
@@ -1,12 +1,5 @@
 package redis.embedded.model;
 
-import redis.embedded.error.OsArchitectureNotFound;
-
-import java.io.IOException;
-import java.util.stream.Stream;
-
-import static redis.embedded.util.IO.processToLines;
-
 public enum Architecture {
     x86,
     x86_64,
@@ -20,12 +13,20 @@ public enum Architecture {
     }
 
     public static Architecture detectUnixMacOSXArchitecture() {
-        try (final Stream<String> lines = processToLines("uname -m")) {
-            return lines.filter(Architecture::isUnix64Bit)
-                .map(line -> line.contains("aarch64") || line.contains("arm64") ? aarch64:  x86_64)
-                .findFirst().orElse(x86);
-        } catch (IOException e) {
-            throw new OsArchitectureNotFound(e);
+        return PlatformProbe.detectUnixArchitecture();
+    }
+
+    public static Architecture fromName(final String name) {
+        if (name == null) return null;
+        switch (name.trim().toLowerCase()) {
+            case "x86_64": case "amd64": case "x64":
+                return x86_64;
+            case "aarch64": case "arm64":
+                return aarch64;
+            case "x86": case "i386": case "i486": case "i586": case "i686":
+                return x86;
+            default:
+                return null;
         }
     }
 
@@ -33,8 +34,4 @@ public enum Architecture {
         return arch.endsWith("64") || wow64Arch != null && wow64Arch.endsWith("64");
     }
 
-    private static boolean isUnix64Bit(final String line) {
-        return !line.isEmpty() && line.contains("64");
-    }
-
 }
@@ -0,0 +1,48 @@
+package redis.embedded.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public final class Checkpoint {
+    public final Map<Integer, List<Entry>> databases;
+    public final long capturedAtMillis;
+
+    public Checkpoint(final Map<Integer, List<Entry>> databases, final long capturedAtMillis) {
+        this.databases = Collections.unmodifiableMap(databases);
+        this.capturedAtMillis = capturedAtMillis;
+    }
+
+    public long keyCount() {
+        long count = 0;
+        for (final List<Entry> entries : databases.values()) count += entries.size();
+        return count;
+    }
+
+    public long sizeInBytes() {
+        long size = 0;
+        for (final List<Entry> entries : databases.values()) {
+            for (final Entry entry : entries) size += entry.key.length + entry.payload.length;
+        }
+        return size;
+    }
+
+    public static final class Entry {
+        public static final long NO_EXPIRY = 0;
+
+        public final byte[] key;
+        /** Unix time in milliseconds at which the key expires, or {@link #NO_EXPIRY}. */
+        public final long expiresAtMillis;
+        public final byte[] payload;
+
+        public Entry(final byte[] key, final long expiresAtMillis, final byte[] payload) {
+            this.key = key;
+            this.expiresAtMillis = expiresAtMillis;
+            this.payload = payload;
+        }
+
+        public boolean hasExpired(final long nowMillis) {
+            return expiresAtMillis != NO_EXPIRY && expiresAtMillis <= nowMillis;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package redis.embedded.model;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class ClusterShard {
+    public final int masterPort;
+    public final List<Integer> replicaPorts;
+    public final int firstSlot;
+    public final int lastSlot;
+
+    public ClusterShard(final int masterPort, final List<Integer> replicaPorts, final int firstSlot, final int lastSlot) {
+        this.masterPort = masterPort;
+        this.replicaPorts = Collections.unmodifiableList(replicaPorts);
+        this.firstSlot = firstSlot;
+        this.lastSlot = lastSlot;
+    }
+
+    public boolean owns(final int slot) {
+        return slot >= firstSlot && slot <= lastSlot;
+    }
+
+    public String toString() {
+        return "ClusterShard{" + firstSlot + "-" + lastSlot + " master=" + masterPort + " replicas=" + replicaPorts + "}";
+    }
+}
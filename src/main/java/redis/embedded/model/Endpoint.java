@@ -0,0 +1,48 @@
+package redis.embedded.model;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+public final class Endpoint {
+
+    public enum Transport { TCP, UNIX }
+
+    public final Transport transport;
+    public final String host;
+    public final int port;
+    public final Path socket;
+
+    private Endpoint(final Transport transport, final String host, final int port, final Path socket) {
+        this.transport = transport;
+        this.host = host;
+        this.port = port;
+        this.socket = socket;
+    }
+
+    public static Endpoint tcp(final String host, final int port) {
+        return new Endpoint(Transport.TCP, host, port, null);
+    }
+
+    public static Endpoint unix(final Path socket) {
+        return new Endpoint(Transport.UNIX, null, -1, socket.toAbsolutePath());
+    }
+
+    public boolean isUnix() {
+        return transport == Transport.UNIX;
+    }
+
+    public boolean equals(final Object o) {
+        if (!(o instanceof Endpoint)) return false;
+        final Endpoint other = (Endpoint) o;
+        return transport == other.transport && port == other.port
+            && Objects.equals(host, other.host) && Objects.equals(socket, other.socket);
+    }
+
+    public int hashCode() {
+        return Objects.hash(transport, host, port, socket);
+    }
+
+    public String toString() {
+        return isUnix() ? "unix://" + socket : "tcp://" + host + ":" + port;
+    }
+}
@@ -0,0 +1,15 @@
+package redis.embedded.model;
+
+public enum Libc {
+    ANY,
+    GLIBC,
+    MUSL;
+
+    public static Libc fromInterpreter(final String interpreter) {
+        if (interpreter == null) return ANY;
+        if (interpreter.contains("musl")) return MUSL;
+        if (interpreter.contains("ld-linux") || interpreter.contains("ld64.so")) return GLIBC;
+        return ANY;
+    }
+
+}
@@ -0,0 +1,6 @@
+package redis.embedded.model;
+
+public enum LogSource {
+    STDOUT,
+    STDERR
+}
@@ -1,5 +1,9 @@
 package redis.embedded.model;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static redis.embedded.model.Architecture.x86;
 import static redis.embedded.model.Architecture.x86_64;
 import static redis.embedded.model.Architecture.aarch64;
@@ -13,22 +17,45 @@ public class OsArchitecture {
         WINDOWS_x86_64 = new OsArchitecture(WINDOWS, x86_64),
         UNIX_x86 = new OsArchitecture(UNIX, x86),
         UNIX_x86_64 = new OsArchitecture(UNIX, x86_64),
+        UNIX_x86_64_GLIBC = new OsArchitecture(UNIX, x86_64, Libc.GLIBC),
         UNIX_AARCH64 = new OsArchitecture(UNIX, aarch64),
         MAC_OS_X_x86_64 = new OsArchitecture(MAC_OS_X, x86_64),
         MAC_OS_X_ARM64 = new OsArchitecture(MAC_OS_X, aarch64);
 
     public final OS os;
     public final Architecture arch;
+    public final Libc libc;
     
     public static OsArchitecture detectOSandArchitecture() {
-        final OS os = OS.detectOS();
-        final Architecture arch = os.detectArchitecture();
-        return new OsArchitecture(os, arch);
+        return PlatformProbe.detected();
     }
 
     public OsArchitecture(final OS os, final Architecture arch) {
+        this(os, arch, Libc.ANY);
+    }
+
+    public OsArchitecture(final OS os, final Architecture arch, final Libc libc) {
         this.os = os;
         this.arch = arch;
+        this.libc = libc;
+    }
+
+    public List<OsArchitecture> candidates() {
+        final List<OsArchitecture> candidates = new ArrayList<>(2);
+        candidates.add(this);
+        if (libc != Libc.ANY)
+            candidates.add(new OsArchitecture(os, arch));
+        else if (os == UNIX)
+            candidates.add(new OsArchitecture(os, arch, Libc.GLIBC));
+        return candidates;
+    }
+
+    public <T> T selectFrom(final Map<OsArchitecture, T> options) {
+        for (final OsArchitecture candidate : candidates()) {
+            final T value = options.get(candidate);
+            if (value != null) return value;
+        }
+        return null;
     }
 
     @Override
@@ -37,14 +64,20 @@ public class OsArchitecture {
         if (o == null || getClass() != o.getClass()) return false;
 
         final OsArchitecture that = (OsArchitecture) o;
-        return arch == that.arch && os == that.os;
+        return arch == that.arch && os == that.os && libc == that.libc;
     }
 
     @Override
     public int hashCode() {
         int result = os.hashCode();
         result = 31 * result + arch.hashCode();
+        result = 31 * result + libc.hashCode();
         return result;
     }
 
+    @Override
+    public String toString() {
+        return libc == Libc.ANY ? os + "-" + arch : os + "-" + arch + "-" + libc;
+    }
+
 }
@@ -0,0 +1,144 @@
+package redis.embedded.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Works out the OS, CPU architecture and libc flavour of the running JVM once, from system properties,
+ * {@code /proc} and the ELF headers of the JVM executable. No child processes are started.
+ */
+public enum PlatformProbe {;
+
+    private static final Path
+        SELF_EXECUTABLE = Paths.get("/proc/self/exe"),
+        KERNEL_ARCH = Paths.get("/proc/sys/kernel/arch");
+
+    private static final int
+        ELF_MAGIC = 0x7F454C46,
+        ELF_HEADER_SIZE = 64,
+        PT_INTERP = 3,
+        EM_386 = 0x03,
+        EM_X86_64 = 0x3E,
+        EM_AARCH64 = 0xB7;
+
+    private static final class Detected {
+        private static final OsArchitecture PLATFORM = probe();
+    }
+
+    public static OsArchitecture detected() {
+        return Detected.PLATFORM;
+    }
+
+    private static OsArchitecture probe() {
+        final OS os = OS.detectOS();
+        final Architecture arch = os.detectArchitecture();
+        final Libc libc = os == OS.UNIX ? detectLinuxLibc() : Libc.ANY;
+        return new OsArchitecture(os, arch, libc);
+    }
+
+    public static Architecture detectUnixArchitecture() {
+        final Architecture kernel = Architecture.fromName(readFirstLine(KERNEL_ARCH));
+        if (kernel != null) return kernel;
+        final Architecture jvm = Architecture.fromName(System.getProperty("os.arch"));
+        if (jvm != null) return jvm;
+        final Architecture elf = readElfArchitecture(SELF_EXECUTABLE);
+        return elf != null ? elf : Architecture.x86;
+    }
+
+    public static Libc detectLinuxLibc() {
+        final Libc fromInterpreter = Libc.fromInterpreter(readElfInterpreter(SELF_EXECUTABLE));
+        if (fromInterpreter != Libc.ANY) return fromInterpreter;
+        return hasMuslLoader() ? Libc.MUSL : Libc.GLIBC;
+    }
+
+    static Architecture readElfArchitecture(final Path file) {
+        final ByteBuffer header = readElfHeader(file);
+        if (header == null) return null;
+        switch (header.getShort(18) & 0xFFFF) {
+            case EM_386: return Architecture.x86;
+            case EM_X86_64: return Architecture.x86_64;
+            case EM_AARCH64: return Architecture.aarch64;
+            default: return null;
+        }
+    }
+
+    static String readElfInterpreter(final Path file) {
+        final ByteBuffer header = readElfHeader(file);
+        if (header == null) return null;
+
+        final boolean is64Bit = header.get(4) == 2;
+        final long tableOffset = is64Bit ? header.getLong(32) : header.getInt(28) & 0xFFFFFFFFL;
+        final int entrySize = header.getShort(is64Bit ? 54 : 42) & 0xFFFF;
+        final int entryCount = header.getShort(is64Bit ? 56 : 44) & 0xFFFF;
+
+        try (final FileChannel channel = FileChannel.open(file, READ)) {
+            final ByteBuffer entry = ByteBuffer.allocate(entrySize).order(header.order());
+            for (int i = 0; i < entryCount; i++) {
+                entry.clear();
+                if (!readFully(channel, entry, tableOffset + (long) i * entrySize)) return null;
+                if (entry.getInt(0) != PT_INTERP) continue;
+
+                final long offset = is64Bit ? entry.getLong(8) : entry.getInt(4) & 0xFFFFFFFFL;
+                final long size = is64Bit ? entry.getLong(32) : entry.getInt(16) & 0xFFFFFFFFL;
+                if (size <= 0 || size > 4096) return null;
+
+                final ByteBuffer interpreter = ByteBuffer.allocate((int) size);
+                if (!readFully(channel, interpreter, offset)) return null;
+                return new String(interpreter.array(), 0, (int) size, US_ASCII).trim().replace("\0", "");
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static ByteBuffer readElfHeader(final Path file) {
+        try (final FileChannel channel = FileChannel.open(file, READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(ELF_HEADER_SIZE);
+            if (!readFully(channel, header, 0) || header.getInt(0) != ELF_MAGIC) return null;
+            header.order(header.get(5) == 2 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+            return header;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) return false;
+            position += read;
+        }
+        return true;
+    }
+
+    private static boolean hasMuslLoader() {
+        try (final DirectoryStream<Path> loaders = Files.newDirectoryStream(Paths.get("/lib"), "ld-musl-*")) {
+            return loaders.iterator().hasNext();
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String readFirstLine(final Path file) {
+        try {
+            if (!Files.isReadable(file)) return null;
+            final byte[] content = Files.readAllBytes(file);
+            final String text = new String(content, US_ASCII).trim();
+            final int newline = text.indexOf('\n');
+            return newline == -1 ? text : text.substring(0, newline);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package redis.embedded.model;
+
+public final class PoolStats {
+    public final int size;
+    public final int idle;
+    public final long leases;
+    public final long hits;
+    public final long misses;
+    public final long totalWaitNanos;
+    public final long maxWaitNanos;
+    public final long resets;
+    public final long recycled;
+    public final long startFailures;
+
+    public PoolStats(final int size, final int idle, final long leases, final long hits, final long misses,
+                     final long totalWaitNanos, final long maxWaitNanos, final long resets, final long recycled,
+                     final long startFailures) {
+        this.size = size;
+        this.idle = idle;
+        this.leases = leases;
+        this.hits = hits;
+        this.misses = misses;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.resets = resets;
+        this.recycled = recycled;
+        this.startFailures = startFailures;
+    }
+
+    public double hitRatio() {
+        return leases == 0 ? 0 : (double) hits / leases;
+    }
+
+    public long meanWaitNanos() {
+        return leases == 0 ? 0 : totalWaitNanos / leases;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{size=" + size + ", idle=" + idle + ", leases=" + leases + ", hits=" + hits
+            + ", misses=" + misses + ", meanWaitNanos=" + meanWaitNanos() + ", maxWaitNanos=" + maxWaitNanos
+            + ", resets=" + resets + ", recycled=" + recycled + ", startFailures=" + startFailures + '}';
+    }
+}
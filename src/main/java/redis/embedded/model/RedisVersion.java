@@ -0,0 +1,95 @@
+package redis.embedded.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class RedisVersion implements Comparable<RedisVersion> {
+
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)(?:\\.(\\d+))?");
+    private static final Map<String, RedisVersion> DETECTED = new ConcurrentHashMap<>();
+
+    public final int major;
+    public final int minor;
+    public final int patch;
+
+    public RedisVersion(final int major, final int minor, final int patch) {
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+    }
+
+    public static RedisVersion parse(final String text) {
+        final String value = text == null ? "" : text;
+        final Matcher matcher = VERSION.matcher(value);
+        if (!matcher.find(Math.max(0, value.indexOf("v="))))
+            throw new IllegalArgumentException("No Redis version in '" + text + "'");
+        return new RedisVersion(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+            matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3)));
+    }
+
+    /**
+     * Runs {@code <executable> --version} and parses the answer. The result is remembered per binary, so only the
+     * first build against an executable pays for the extra process.
+     */
+    public static RedisVersion of(final File executable) throws IOException {
+        final String key = executable.getAbsolutePath() + ':' + executable.lastModified() + ':' + executable.length();
+        final RedisVersion known = DETECTED.get(key);
+        if (known != null) return known;
+
+        final Process process = new ProcessBuilder(executable.getAbsolutePath(), "--version")
+            .redirectErrorStream(true).start();
+        final String output;
+        try (final InputStream in = process.getInputStream()) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int read; while ((read = in.read(buffer)) != -1) bytes.write(buffer, 0, read);
+            output = new String(bytes.toByteArray(), UTF_8);
+        } finally {
+            process.getOutputStream().close();
+        }
+        try {
+            process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while asking " + executable + " for its version", e);
+        }
+        try {
+            final RedisVersion version = parse(output);
+            DETECTED.put(key, version);
+            return version;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Could not determine the version of " + executable + ": " + output.trim(), e);
+        }
+    }
+
+    public boolean atLeast(final int major, final int minor) {
+        return this.major > major || this.major == major && this.minor >= minor;
+    }
+
+    public int compareTo(final RedisVersion other) {
+        if (major != other.major) return Integer.compare(major, other.major);
+        if (minor != other.minor) return Integer.compare(minor, other.minor);
+        return Integer.compare(patch, other.patch);
+    }
+
+    public boolean equals(final Object o) {
+        if (!(o instanceof RedisVersion)) return false;
+        return compareTo((RedisVersion) o) == 0;
+    }
+
+    public int hashCode() {
+        return (major * 31 + minor) * 31 + patch;
+    }
+
+    public String toString() {
+        return major + "." + minor + "." + patch;
+    }
+}
@@ -2,6 +2,7 @@ package redis.embedded.model;
 
 import redis.embedded.core.PortProvider;
 
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -9,9 +10,15 @@ public final class ReplicationGroup {
     public final String masterName;
     public final int masterPort;
     public final List<Integer> slavePorts = new LinkedList<>();
+    public final Path dataset;
 
     public ReplicationGroup(final String masterName, int slaveCount, final PortProvider provider) {
+        this(masterName, slaveCount, provider, null);
+    }
+
+    public ReplicationGroup(final String masterName, int slaveCount, final PortProvider provider, final Path dataset) {
         this.masterName = masterName;
+        this.dataset = dataset;
         this.masterPort = provider.get();
         while (slaveCount-- > 0) {
             this.slavePorts.add(provider.get());
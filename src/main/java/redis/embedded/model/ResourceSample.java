@@ -0,0 +1,47 @@
+package redis.embedded.model;
+
+/**
+ * One reading of a running instance. Values that could not be read, such as RSS on a system without {@code /proc}
+ * or the INFO fields when INFO sampling is off, are -1. CPU utilisation is NaN for the first sample of an instance.
+ */
+public final class ResourceSample {
+    public final String instance;
+    public final long pid;
+    public final long timestampMillis;
+    public final long rssBytes;
+    public final long cpuTimeNanos;
+    public final double cpuUtilization;
+    public final long opsPerSecond;
+    public final long usedMemoryBytes;
+    public final long connectedClients;
+    public final long keyspaceHits;
+    public final long keyspaceMisses;
+
+    public ResourceSample(final String instance, final long pid, final long timestampMillis, final long rssBytes,
+                          final long cpuTimeNanos, final double cpuUtilization, final long opsPerSecond,
+                          final long usedMemoryBytes, final long connectedClients, final long keyspaceHits,
+                          final long keyspaceMisses) {
+        this.instance = instance;
+        this.pid = pid;
+        this.timestampMillis = timestampMillis;
+        this.rssBytes = rssBytes;
+        this.cpuTimeNanos = cpuTimeNanos;
+        this.cpuUtilization = cpuUtilization;
+        this.opsPerSecond = opsPerSecond;
+        this.usedMemoryBytes = usedMemoryBytes;
+        this.connectedClients = connectedClients;
+        this.keyspaceHits = keyspaceHits;
+        this.keyspaceMisses = keyspaceMisses;
+    }
+
+    public double hitRatio() {
+        final long lookups = keyspaceHits + keyspaceMisses;
+        return keyspaceHits < 0 || lookups <= 0 ? Double.NaN : (double) keyspaceHits / lookups;
+    }
+
+    public String toString() {
+        return "ResourceSample{" + instance + " pid=" + pid + " rss=" + rssBytes + " cpu=" + cpuUtilization
+            + " ops/s=" + opsPerSecond + " used_memory=" + usedMemoryBytes + " clients=" + connectedClients
+            + " hits=" + keyspaceHits + " misses=" + keyspaceMisses + "}";
+    }
+}
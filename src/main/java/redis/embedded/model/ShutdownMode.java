@@ -0,0 +1,13 @@
+package redis.embedded.model;
+
+public enum ShutdownMode {
+    NOSAVE("SHUTDOWN", "NOSAVE"),
+    SAVE("SHUTDOWN", "SAVE"),
+    CONFIGURED("SHUTDOWN");
+
+    public final String[] command;
+
+    ShutdownMode(final String... command) {
+        this.command = command;
+    }
+}
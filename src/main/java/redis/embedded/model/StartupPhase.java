@@ -0,0 +1,19 @@
+package redis.embedded.model;
+
+public enum StartupPhase {
+    EXECUTABLE_RESOLUTION(false),
+    CONFIG_MATERIALIZATION(false),
+    DATASET_PLACEMENT(false),
+    PROCESS_SPAWN(false),
+    READINESS(false),
+    STOP(true),
+    STOP_SHUTDOWN_COMMAND(true),
+    STOP_SIGTERM(true),
+    STOP_SIGKILL(true);
+
+    public final boolean stopping;
+
+    StartupPhase(final boolean stopping) {
+        this.stopping = stopping;
+    }
+}
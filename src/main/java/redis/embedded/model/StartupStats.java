@@ -0,0 +1,92 @@
+package redis.embedded.model;
+
+import redis.embedded.util.FlightRecorder;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+public final class StartupStats {
+
+    private final EnumMap<StartupPhase, Long> nanos = new EnumMap<>(StartupPhase.class);
+
+    public PhaseTimer time(final String instance, final StartupPhase phase) {
+        return new PhaseTimer(instance, phase);
+    }
+
+    public synchronized void record(final StartupPhase phase, final long durationNanos) {
+        nanos.put(phase, durationNanos);
+    }
+
+    /** Forgets how the previous stop went, so escalation steps it needed do not show up for the next one. */
+    public synchronized void clearStopPhases() {
+        nanos.keySet().removeIf(phase -> phase.stopping);
+    }
+
+    public void recordAll(final StartupStats other) {
+        for (final Map.Entry<StartupPhase, Long> entry : other.asMap().entrySet()) {
+            record(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public synchronized long nanos(final StartupPhase phase) {
+        final Long value = nanos.get(phase);
+        return value == null ? 0 : value;
+    }
+
+    public long millis(final StartupPhase phase) {
+        return NANOSECONDS.toMillis(nanos(phase));
+    }
+
+    public synchronized long startupNanos() {
+        long total = 0;
+        for (final Map.Entry<StartupPhase, Long> entry : nanos.entrySet()) {
+            if (!entry.getKey().stopping) total += entry.getValue();
+        }
+        return total;
+    }
+
+    public synchronized Map<StartupPhase, Long> asMap() {
+        return Collections.unmodifiableMap(new EnumMap<>(nanos));
+    }
+
+    public static StartupStats sum(final Iterable<StartupStats> all) {
+        final StartupStats sum = new StartupStats();
+        for (final StartupStats stats : all) {
+            for (final Map.Entry<StartupPhase, Long> entry : stats.asMap().entrySet()) {
+                sum.record(entry.getKey(), sum.nanos(entry.getKey()) + entry.getValue());
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder builder = new StringBuilder("StartupStats{");
+        for (final Map.Entry<StartupPhase, Long> entry : nanos.entrySet()) {
+            if (builder.length() > "StartupStats{".length()) builder.append(", ");
+            builder.append(entry.getKey()).append('=').append(NANOSECONDS.toMicros(entry.getValue()) / 1000.0).append("ms");
+        }
+        return builder.append('}').toString();
+    }
+
+    public final class PhaseTimer implements AutoCloseable {
+        private final StartupPhase phase;
+        private final Object event;
+        private final long begin;
+
+        private PhaseTimer(final String instance, final StartupPhase phase) {
+            this.phase = phase;
+            this.event = FlightRecorder.begin(instance, phase);
+            this.begin = System.nanoTime();
+        }
+
+        public void close() {
+            record(phase, System.nanoTime() - begin);
+            FlightRecorder.end(event);
+        }
+    }
+
+}
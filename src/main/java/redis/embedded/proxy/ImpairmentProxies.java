@@ -0,0 +1,73 @@
+package redis.embedded.proxy;
+
+import redis.embedded.Redis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+/**
+ * One proxy per port of a server or cluster, all sharing one {@link Impairments}. Clients that learn node addresses
+ * from Redis itself, from sentinels or cluster redirects, get the real ports; map them with {@link #portMapping()}.
+ */
+public final class ImpairmentProxies implements Closeable {
+
+    private final Impairments impairments;
+    private final Map<Integer, ImpairmentProxy> proxies = new LinkedHashMap<>();
+
+    private ImpairmentProxies(final Impairments impairments) {
+        this.impairments = impairments;
+    }
+
+    public static ImpairmentProxies inFrontOfEach(final Redis redis) throws IOException {
+        return inFrontOfEach(redis, Impairments.newImpairments());
+    }
+    public static ImpairmentProxies inFrontOfEach(final Redis redis, final Impairments impairments) throws IOException {
+        final ImpairmentProxies group = new ImpairmentProxies(impairments);
+        try {
+            for (final int port : redis.ports()) {
+                group.proxies.put(port, ImpairmentProxy.inFrontOf(DEFAULT_HOST, port, 0, impairments));
+            }
+        } catch (IOException e) {
+            group.close();
+            throw e;
+        }
+        return group;
+    }
+
+    public Impairments impairments() {
+        return impairments;
+    }
+
+    public ImpairmentProxy proxyFor(final int targetPort) {
+        final ImpairmentProxy proxy = proxies.get(targetPort);
+        if (proxy == null) throw new IllegalArgumentException("No proxy in front of port " + targetPort);
+        return proxy;
+    }
+
+    public List<Integer> ports() {
+        final List<Integer> ports = new ArrayList<>(proxies.size());
+        for (final ImpairmentProxy proxy : proxies.values()) ports.add(proxy.port());
+        return ports;
+    }
+
+    /** Real port to proxy port. */
+    public Map<Integer, Integer> portMapping() {
+        final Map<Integer, Integer> mapping = new LinkedHashMap<>();
+        for (final Map.Entry<Integer, ImpairmentProxy> proxy : proxies.entrySet()) {
+            mapping.put(proxy.getKey(), proxy.getValue().port());
+        }
+        return mapping;
+    }
+
+    public void resetConnections() {
+        for (final ImpairmentProxy proxy : proxies.values()) proxy.resetConnections();
+    }
+
+    public void close() {
+        for (final ImpairmentProxy proxy : proxies.values()) proxy.close();
+    }
+
+}
@@ -0,0 +1,256 @@
+package redis.embedded.proxy;
+
+import redis.embedded.Redis;
+import redis.embedded.model.Endpoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static redis.embedded.util.IO.newDaemonThreadFactory;
+import static redis.embedded.util.IO.newPerTaskExecutor;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+/**
+ * TCP proxy in front of one Redis port that applies {@link Impairments}. While nothing is impaired every direction of
+ * a connection is a plain read and write through one direct buffer. Impaired data is copied into a small pool of
+ * timestamped chunks, allocated the first time it is needed, and written by a second task when it is due.
+ */
+public final class ImpairmentProxy implements Closeable {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int CHUNKS_PER_DIRECTION = 16;
+    private static final long PARTITION_POLL_NANOS = MILLISECONDS.toNanos(5);
+
+    private final InetSocketAddress target;
+    private final Impairments impairments;
+    private final ServerSocketChannel acceptor;
+    private final ExecutorService pumps;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    private ImpairmentProxy(final InetSocketAddress target, final int port, final Impairments impairments) throws IOException {
+        this.target = target;
+        this.impairments = impairments;
+        this.acceptor = ServerSocketChannel.open();
+        try {
+            acceptor.bind(new InetSocketAddress(DEFAULT_HOST, port));
+        } catch (IOException e) {
+            acceptor.close();
+            throw new IOException("Could not bind impairment proxy to port " + port, e);
+        }
+        this.pumps = newPerTaskExecutor("ImpairmentProxy-" + port());
+        newDaemonThreadFactory("ImpairmentProxyAcceptor-" + port()).newThread(this::accept).start();
+    }
+
+    /** Starts a proxy on an ephemeral port in front of the first endpoint of the server. */
+    public static ImpairmentProxy inFrontOf(final Redis redis) throws IOException {
+        return inFrontOf(redis, Impairments.newImpairments());
+    }
+    public static ImpairmentProxy inFrontOf(final Redis redis, final Impairments impairments) throws IOException {
+        final Endpoint endpoint = redis.endpoints().stream().filter(e -> !e.isUnix()).findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("The impairment proxy needs a TCP endpoint"));
+        return inFrontOf(endpoint.host, endpoint.port, 0, impairments);
+    }
+    public static ImpairmentProxy inFrontOf(final String host, final int targetPort, final int port,
+                                            final Impairments impairments) throws IOException {
+        return new ImpairmentProxy(new InetSocketAddress(host, targetPort), port, impairments);
+    }
+
+    public int port() {
+        return acceptor.socket().getLocalPort();
+    }
+
+    public int targetPort() {
+        return target.getPort();
+    }
+
+    public Impairments impairments() {
+        return impairments;
+    }
+
+    public int openConnections() {
+        return connections.size();
+    }
+
+    public int acceptedConnections() {
+        return accepted.get();
+    }
+
+    /** Closes every open connection with a TCP reset. New connections are still accepted. */
+    public void resetConnections() {
+        for (final Connection connection : connections) connection.close(true);
+    }
+
+    public void close() {
+        closeQuietly(acceptor);
+        for (final Connection connection : connections) connection.close(false);
+        pumps.shutdownNow();
+    }
+
+    private void accept() {
+        while (acceptor.isOpen()) {
+            final SocketChannel client;
+            try {
+                client = acceptor.accept();
+            } catch (IOException e) {
+                return;
+            }
+            try {
+                final SocketChannel upstream = SocketChannel.open(target);
+                client.socket().setTcpNoDelay(true);
+                upstream.socket().setTcpNoDelay(true);
+                final Connection connection = new Connection(client, upstream);
+                connections.add(connection);
+                accepted.incrementAndGet();
+                pumps.execute(connection.up);
+                pumps.execute(connection.down);
+            } catch (IOException e) {
+                closeQuietly(client);
+            }
+        }
+    }
+
+    private static void closeQuietly(final Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            /* eat quietly */
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel client;
+        private final SocketChannel upstream;
+        private final Direction up;
+        private final Direction down;
+        private final AtomicInteger openDirections = new AtomicInteger(2);
+
+        private Connection(final SocketChannel client, final SocketChannel upstream) {
+            this.client = client;
+            this.upstream = upstream;
+            this.up = new Direction(this, client, upstream);
+            this.down = new Direction(this, upstream, client);
+        }
+
+        private void directionDone() {
+            if (openDirections.decrementAndGet() == 0) close(false);
+        }
+
+        private void close(final boolean reset) {
+            if (!connections.remove(this)) return;
+            if (reset) {
+                try {
+                    client.socket().setSoLinger(true, 0);
+                } catch (IOException e) {
+                    /* closes normally instead */
+                }
+            }
+            closeQuietly(client);
+            closeQuietly(upstream);
+        }
+
+        private boolean isOpen() {
+            return client.isOpen() && upstream.isOpen();
+        }
+    }
+
+    private final class Direction implements Runnable {
+        private final Connection connection;
+        private final SocketChannel from;
+        private final SocketChannel to;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        private final AtomicInteger pending = new AtomicInteger();
+        private BlockingQueue<Chunk> free;
+        private BlockingQueue<Chunk> queued;
+        private long lastDueNanos;
+
+        private Direction(final Connection connection, final SocketChannel from, final SocketChannel to) {
+            this.connection = connection;
+            this.from = from;
+            this.to = to;
+        }
+
+        // Data only takes the direct path when nothing is impaired and no delayed chunk is still waiting
+        public void run() {
+            try {
+                while (from.read(buffer) != -1) {
+                    buffer.flip();
+                    if (!impairments.isActive() && pending.get() == 0) {
+                        while (buffer.hasRemaining()) to.write(buffer);
+                    } else {
+                        enqueue(System.nanoTime());
+                    }
+                    buffer.clear();
+                }
+                while (pending.get() > 0 && connection.isOpen()) LockSupport.parkNanos(PARTITION_POLL_NANOS);
+                to.shutdownOutput();
+                connection.directionDone();
+            } catch (IOException | InterruptedException e) {
+                connection.close(false);
+            }
+        }
+
+        private void enqueue(final long receivedNanos) throws InterruptedException {
+            if (queued == null) startWriter();
+            final Chunk chunk = free.take();
+            chunk.buffer.put(buffer).flip();
+            // TCP never reorders, so jitter can only push data later than what was sent before it
+            chunk.dueNanos = Math.max(receivedNanos + impairments.nextDelayNanos(), lastDueNanos);
+            lastDueNanos = chunk.dueNanos;
+            pending.incrementAndGet();
+            queued.put(chunk);
+        }
+
+        private void startWriter() {
+            free = new ArrayBlockingQueue<>(CHUNKS_PER_DIRECTION);
+            queued = new ArrayBlockingQueue<>(CHUNKS_PER_DIRECTION);
+            for (int i = 0; i < CHUNKS_PER_DIRECTION; i++) free.add(new Chunk());
+            pumps.execute(this::write);
+        }
+
+        private void write() {
+            long linkFreeNanos = 0;
+            try {
+                while (connection.isOpen()) {
+                    final Chunk chunk = queued.poll(100, MILLISECONDS);
+                    if (chunk == null) continue;
+                    final long sendNanos = Math.max(chunk.dueNanos, linkFreeNanos);
+                    linkFreeNanos = sendNanos + impairments.transmitNanos(chunk.buffer.remaining());
+                    parkUntil(sendNanos);
+                    while (impairments.isPartitioned() && connection.isOpen()) LockSupport.parkNanos(PARTITION_POLL_NANOS);
+                    while (chunk.buffer.hasRemaining()) to.write(chunk.buffer);
+                    chunk.buffer.clear();
+                    free.put(chunk);
+                    pending.decrementAndGet();
+                }
+            } catch (IOException | InterruptedException e) {
+                connection.close(false);
+            }
+        }
+    }
+
+    private static void parkUntil(final long deadlineNanos) {
+        for (long wait = deadlineNanos - System.nanoTime(); wait > 0; wait = deadlineNanos - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static final class Chunk {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        private long dueNanos;
+    }
+
+}
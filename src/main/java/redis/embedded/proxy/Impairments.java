@@ -0,0 +1,96 @@
+package redis.embedded.proxy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Network conditions applied by one or more {@link ImpairmentProxy}s. Every setter takes effect immediately for open
+ * connections too, so tests can degrade and restore the network while clients are connected.
+ */
+public final class Impairments {
+
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private volatile long bytesPerSecond;
+    private volatile boolean partitioned;
+    private volatile boolean active;
+
+    public static Impairments newImpairments() {
+        return new Impairments();
+    }
+
+    /** One-way delay added to every chunk of data, in both directions. */
+    public Impairments latency(final long millis) {
+        return latency(millis, 0);
+    }
+    public Impairments latency(final long millis, final long jitterMillis) {
+        if (millis < 0 || jitterMillis < 0) throw new IllegalArgumentException("Latency and jitter can not be negative");
+        this.latencyNanos = MILLISECONDS.toNanos(millis);
+        this.jitterNanos = MILLISECONDS.toNanos(jitterMillis);
+        return update();
+    }
+
+    /** Caps every connection, per direction. Zero removes the cap. */
+    public Impairments bandwidth(final long bytesPerSecond) {
+        if (bytesPerSecond < 0) throw new IllegalArgumentException("Bandwidth can not be negative");
+        this.bytesPerSecond = bytesPerSecond;
+        return update();
+    }
+
+    /**
+     * Stops all traffic without closing connections, like a dropped link. Data sent in the meantime is delivered
+     * after {@link #heal()}, the way TCP retransmits it, so clients see timeouts rather than broken streams.
+     */
+    public Impairments partition() {
+        this.partitioned = true;
+        return update();
+    }
+
+    public Impairments heal() {
+        this.partitioned = false;
+        return update();
+    }
+
+    public Impairments clear() {
+        this.latencyNanos = 0;
+        this.jitterNanos = 0;
+        this.bytesPerSecond = 0;
+        this.partitioned = false;
+        return update();
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    public long latencyMillis() {
+        return NANOSECONDS.toMillis(latencyNanos);
+    }
+
+    public long bytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    long nextDelayNanos() {
+        final long jitter = jitterNanos;
+        return latencyNanos + (jitter == 0 ? 0 : ThreadLocalRandom.current().nextLong(jitter + 1));
+    }
+
+    // Time the link is busy sending this many bytes
+    long transmitNanos(final int bytes) {
+        final long rate = bytesPerSecond;
+        return rate == 0 ? 0 : bytes * 1_000_000_000L / rate;
+    }
+
+    private Impairments update() {
+        active = latencyNanos > 0 || jitterNanos > 0 || bytesPerSecond > 0 || partitioned;
+        return this;
+    }
+
+}
@@ -0,0 +1,41 @@
+package redis.embedded.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public enum ClusterSlots {;
+
+    public static final int SLOT_COUNT = 16384;
+
+    public static int slotOf(final String key) {
+        return slotOf(key.getBytes(UTF_8));
+    }
+
+    public static int slotOf(final byte[] key) {
+        int start = 0, end = key.length;
+        for (int open = 0; open < key.length; open++) {
+            if (key[open] != '{') continue;
+            for (int close = open + 1; close < key.length; close++) {
+                if (key[close] != '}') continue;
+                if (close > open + 1) {
+                    start = open + 1;
+                    end = close;
+                }
+                break;
+            }
+            break;
+        }
+        return crc16(key, start, end) & (SLOT_COUNT - 1);
+    }
+
+    static int crc16(final byte[] bytes, final int from, final int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            crc ^= (bytes[i] & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+
+}
@@ -0,0 +1,26 @@
+package redis.embedded.util;
+
+import redis.embedded.model.StartupPhase;
+
+public enum FlightRecorder {;
+
+    private static final boolean AVAILABLE = isFlightRecorderPresent();
+
+    public static Object begin(final String instance, final StartupPhase phase) {
+        return AVAILABLE ? PhaseEvent.begin(instance, phase) : null;
+    }
+
+    public static void end(final Object event) {
+        if (event != null) PhaseEvent.end(event);
+    }
+
+    private static boolean isFlightRecorderPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
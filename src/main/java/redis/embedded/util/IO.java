@@ -1,10 +1,15 @@
 package redis.embedded.util;
 
 import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -30,6 +35,41 @@ public enum IO {;
         return executable;
     }
 
+    public static byte[] readResource(final String resourcePath) throws IOException {
+        try (final InputStream in = IO.class.getResourceAsStream(resourcePath)) {
+            if (in == null) throw new FileNotFoundException("Could not find Redis executable at " + resourcePath);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[64 * 1024];
+            int read; while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    public static void linkOrCopy(final Path source, final Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source.toAbsolutePath());
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            Files.copy(source, target, REPLACE_EXISTING);
+        }
+    }
+
+    public static long pidOf(final Process process) {
+        try {
+            return (Long) Process.class.getMethod("pid").invoke(process);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            try {
+                final Field field = process.getClass().getDeclaredField("pid");
+                field.setAccessible(true);
+                return field.getInt(process);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                return -1;
+            }
+        }
+    }
+
     public static Runnable checkedToRuntime(final CheckedRunnable runnable) {
         return () -> {
             try {
@@ -40,8 +80,77 @@ public enum IO {;
         };
     }
 
-    public static void addShutdownHook(final String name, final Runnable run) {
-        Runtime.getRuntime().addShutdownHook(new Thread(run, name));
+    public static CompletableFuture<Void> runAsync(final CheckedRunnable task, final Executor executor) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                    future.complete(null);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public static void await(final Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Redis", e);
+        } catch (ExecutionException e) {
+            throw toIOException(e.getCause());
+        }
+    }
+
+    public static IOException toIOException(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof IOException) return (IOException) error;
+        if (error instanceof RuntimeException && error.getCause() instanceof IOException) return (IOException) error.getCause();
+        return new IOException(error);
+    }
+
+    public static Executor lifecycleExecutor() {
+        return LifecycleExecutor.INSTANCE;
+    }
+
+    private static final class LifecycleExecutor {
+        private static final Executor INSTANCE = Executors.newCachedThreadPool(newDaemonThreadFactory("RedisLifecycle"));
+    }
+
+    // A virtual thread per task when the JVM has them (Java 21+), otherwise daemon platform threads
+    public static ExecutorService newPerTaskExecutor(final String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(newDaemonThreadFactory(name));
+        }
+    }
+
+    public static ThreadFactory newDaemonThreadFactory(final String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static void deleteRecursively(final Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) return;
+        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            try (final DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                for (final Path child : children) deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(path);
     }
 
     public static void logStream(final InputStream stream, final Consumer<String> logConsumer) {
@@ -68,7 +177,19 @@ public enum IO {;
 
     public static Stream<String> processToLines(final String command) throws IOException {
         final Process proc = Runtime.getRuntime().exec(command);
-        return new BufferedReader(new InputStreamReader(proc.getInputStream())).lines();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(proc.getInputStream()));
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+                proc.getOutputStream().close();
+                proc.getErrorStream().close();
+                proc.waitFor();
+            } catch (IOException e) {
+                /* eat quietly */
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
     }
 
     public static Path findBinaryInPath(final String name) throws FileNotFoundException {
@@ -0,0 +1,103 @@
+package redis.embedded.util;
+
+import redis.embedded.model.Checkpoint;
+import redis.embedded.model.Endpoint;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public enum Keyspace {;
+
+    private static final Pattern KEYSPACE_DATABASE = Pattern.compile("^db(\\d+):keys=(\\d+)", Pattern.MULTILINE);
+    private static final int BATCH_SIZE = 1000;
+
+    private static final byte[]
+        SELECT = bytes("SELECT"),
+        SCAN = bytes("SCAN"),
+        COUNT = bytes("COUNT"),
+        BATCH = bytes(Integer.toString(BATCH_SIZE)),
+        DUMP = bytes("DUMP"),
+        PTTL = bytes("PTTL"),
+        RESTORE = bytes("RESTORE"),
+        REPLACE = bytes("REPLACE"),
+        ABSTTL = bytes("ABSTTL");
+
+    public static Checkpoint checkpoint(final Endpoint endpoint) throws IOException {
+        final long now = System.currentTimeMillis();
+        final Map<Integer, List<Checkpoint.Entry>> databases = new TreeMap<>();
+        try (final RespClient client = RespClient.connect(endpoint)) {
+            for (final int database : nonEmptyDatabases(client)) {
+                client.send(SELECT, bytes(Integer.toString(database))).readOk();
+                final List<Checkpoint.Entry> entries = new ArrayList<>();
+                byte[] cursor = bytes("0");
+                do {
+                    final List<?> page = (List<?>) client.call(SCAN, cursor, COUNT, BATCH);
+                    cursor = (byte[]) page.get(0);
+                    dumpKeys(client, (List<?>) page.get(1), entries);
+                } while (!(cursor.length == 1 && cursor[0] == '0'));
+                if (!entries.isEmpty()) databases.put(database, entries);
+            }
+        }
+        return new Checkpoint(databases, now);
+    }
+
+    // Expiries are absolute, so time spent between checkpoint and restore counts against the TTL of every key
+    public static void restore(final Endpoint endpoint, final Checkpoint checkpoint) throws IOException {
+        try (final RespClient client = RespClient.connect(endpoint)) {
+            client.send("FLUSHALL").readOk();
+            for (final Map.Entry<Integer, List<Checkpoint.Entry>> database : checkpoint.databases.entrySet()) {
+                client.send(SELECT, bytes(Integer.toString(database.getKey()))).readOk();
+                final List<Checkpoint.Entry> entries = database.getValue();
+                for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+                    final long now = System.currentTimeMillis();
+                    int sent = 0;
+                    for (final Checkpoint.Entry entry : entries.subList(from, Math.min(entries.size(), from + BATCH_SIZE))) {
+                        if (entry.hasExpired(now)) continue;
+                        if (entry.expiresAtMillis == Checkpoint.Entry.NO_EXPIRY) {
+                            client.send(RESTORE, entry.key, bytes("0"), entry.payload, REPLACE);
+                        } else {
+                            client.send(RESTORE, entry.key, bytes(Long.toString(entry.expiresAtMillis)), entry.payload, REPLACE, ABSTTL);
+                        }
+                        sent++;
+                    }
+                    for (int i = 0; i < sent; i++) client.readOk();
+                }
+            }
+            client.send(SELECT, bytes("0")).readOk();
+        }
+    }
+
+    private static void dumpKeys(final RespClient client, final List<?> keys, final List<Checkpoint.Entry> entries)
+            throws IOException {
+        // Taken before the batch is sent, so a restored key never outlives the original
+        final long sentAt = System.currentTimeMillis();
+        for (final Object key : keys) {
+            client.send(DUMP, (byte[]) key).send(PTTL, (byte[]) key);
+        }
+        for (final Object key : keys) {
+            final byte[] payload = (byte[]) client.readBinary();
+            final long ttl = client.readLong();
+            if (payload == null || ttl == -2 || ttl == 0) continue;
+            final long expiresAt = ttl == -1 ? Checkpoint.Entry.NO_EXPIRY : sentAt + ttl;
+            entries.add(new Checkpoint.Entry((byte[]) key, expiresAt, payload));
+        }
+    }
+
+    private static List<Integer> nonEmptyDatabases(final RespClient client) throws IOException {
+        final List<Integer> databases = new ArrayList<>();
+        final Matcher matcher = KEYSPACE_DATABASE.matcher(String.valueOf(client.call("INFO", "keyspace")));
+        while (matcher.find()) {
+            if (Long.parseLong(matcher.group(2)) > 0) databases.add(Integer.parseInt(matcher.group(1)));
+        }
+        return databases;
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(UTF_8);
+    }
+
+}
@@ -0,0 +1,38 @@
+package redis.embedded.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class LogBuffer {
+
+    private final String[] lines;
+    private long written = 0;
+
+    public LogBuffer(final int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Log buffer needs room for at least one line");
+        this.lines = new String[capacity];
+    }
+
+    public synchronized void add(final String line) {
+        lines[(int) (written++ % lines.length)] = line;
+    }
+
+    public synchronized List<String> last(final int count) {
+        final int available = (int) Math.min(written, lines.length);
+        final int wanted = Math.max(0, Math.min(count, available));
+        final List<String> result = new ArrayList<>(wanted);
+        for (long i = written - wanted; i < written; i++) {
+            result.add(lines[(int) (i % lines.length)]);
+        }
+        return result;
+    }
+
+    public synchronized long linesWritten() {
+        return written;
+    }
+
+    public int capacity() {
+        return lines.length;
+    }
+
+}
@@ -0,0 +1,165 @@
+package redis.embedded.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Drains the output of every child process from one daemon thread. Process pipes are not selectable
+ * channels, so the pump polls {@link InputStream#available()} and only reads what is already buffered,
+ * backing off while all streams are idle. It never blocks in a read: a forked child such as a BGSAVE can hold the
+ * pipe open after the process exited, so a dead process whose stream stays empty for a short grace period counts as
+ * finished.
+ */
+public final class LogPump {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int MAX_LINE_LENGTH = 16384;
+    private static final long MAX_IDLE_MILLIS = 20;
+    private static final long EXIT_GRACE_NANOS = 100_000_000L;
+
+    private static volatile LogPump shared;
+
+    public interface LineHandler {
+        void onLine(String line);
+        default void onEnd() {}
+    }
+
+    private final Queue<Source> pending = new ConcurrentLinkedQueue<>();
+    private final List<Source> sources = new ArrayList<>();
+    private final Object signal = new Object();
+
+    private LogPump(final String name) {
+        final Thread thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static LogPump shared() {
+        LogPump pump = shared;
+        if (pump == null) {
+            synchronized (LogPump.class) {
+                pump = shared;
+                if (pump == null) shared = pump = new LogPump("RedisLogPump");
+            }
+        }
+        return pump;
+    }
+
+    public void register(final Process process, final InputStream stream, final LineHandler handler) {
+        pending.add(new Source(process, stream, handler));
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private void run() {
+        final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        long idleMillis = 1;
+        while (true) {
+            Source added; while ((added = pending.poll()) != null) {
+                sources.add(added);
+            }
+
+            boolean progress = false;
+            for (final Iterator<Source> iterator = sources.iterator(); iterator.hasNext(); ) {
+                final Source source = iterator.next();
+                progress |= source.drain(buffer);
+                if (source.finished) iterator.remove();
+            }
+            if (progress) {
+                idleMillis = 1;
+                continue;
+            }
+
+            synchronized (signal) {
+                if (pending.isEmpty()) {
+                    try {
+                        signal.wait(sources.isEmpty() ? 0 : idleMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            idleMillis = Math.min(idleMillis * 2, MAX_IDLE_MILLIS);
+        }
+    }
+
+    private static final class Source {
+        private final Process process;
+        private final InputStream stream;
+        private final LineHandler handler;
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+        private boolean finished = false;
+        private long emptySinceExit = 0;
+
+        private Source(final Process process, final InputStream stream, final LineHandler handler) {
+            this.process = process;
+            this.stream = stream;
+            this.handler = handler;
+        }
+
+        private boolean drain(final byte[] buffer) {
+            try {
+                final int available = stream.available();
+                if (available == 0) {
+                    if (process.isAlive()) return false;
+                    final long now = System.nanoTime();
+                    if (emptySinceExit == 0) emptySinceExit = now;
+                    if (now - emptySinceExit < EXIT_GRACE_NANOS) return false;
+                    finish();
+                    return true;
+                }
+                emptySinceExit = 0;
+                final int read = stream.read(buffer, 0, Math.min(available, buffer.length));
+                if (read < 0) finish();
+                else consume(buffer, read);
+            } catch (IOException e) {
+                finish();
+            }
+            return true;
+        }
+
+        private void consume(final byte[] buffer, final int length) {
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] != '\n') continue;
+                partial.write(buffer, start, i - start);
+                emitLine();
+                start = i + 1;
+            }
+            partial.write(buffer, start, length - start);
+            if (partial.size() >= MAX_LINE_LENGTH) emitLine();
+        }
+
+        private void emitLine() {
+            String line = partial.toString();
+            partial.reset();
+            if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+            try {
+                handler.onLine(line);
+            } catch (RuntimeException e) {
+                /* a misbehaving sink must not stop the pump */
+            }
+        }
+
+        private void finish() {
+            if (partial.size() > 0) emitLine();
+            finished = true;
+            try {
+                stream.close();
+            } catch (IOException e) { /* eat quietly */ }
+            try {
+                handler.onEnd();
+            } catch (RuntimeException e) {
+                /* a misbehaving sink must not stop the pump */
+            }
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package redis.embedded.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import redis.embedded.model.StartupPhase;
+
+@Name("redis.embedded.LifecyclePhase")
+@Label("Redis Lifecycle Phase")
+@Description("Duration of one lifecycle phase of an embedded Redis instance")
+@Category({ "Embedded Redis" })
+@StackTrace(false)
+public final class PhaseEvent extends Event {
+
+    @Label("Instance")
+    String instance;
+
+    @Label("Phase")
+    String phase;
+
+    static Object begin(final String instance, final StartupPhase phase) {
+        final PhaseEvent event = new PhaseEvent();
+        if (!event.isEnabled()) return null;
+        event.instance = instance;
+        event.phase = phase.name();
+        event.begin();
+        return event;
+    }
+
+    static void end(final Object event) {
+        final PhaseEvent phaseEvent = (PhaseEvent) event;
+        phaseEvent.end();
+        if (phaseEvent.shouldCommit()) phaseEvent.commit();
+    }
+
+}
@@ -0,0 +1,384 @@
+package redis.embedded.util;
+
+import redis.embedded.error.RespError;
+import redis.embedded.model.Endpoint;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Minimal RESP2/RESP3 client for talking to the servers this library launches. Commands can be queued with
+ * {@link #send(String...)} and are written in a single flush before the next reply is read. Buffers are direct,
+ * pooled across clients and reused for every command, and {@link #readOk()} / {@link #readLong()} parse their
+ * replies without allocating.
+ */
+public final class RespClient implements Closeable {
+
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final int DEFAULT_TIMEOUT_MILLIS = 2000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 32;
+    private static final Queue<ByteBuffer> BUFFERS = new ConcurrentLinkedQueue<>();
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+    private final long timeoutMillis;
+    private final ByteBuffer in;
+    private final ByteBuffer out;
+    private final byte[] digits = new byte[20];
+    private boolean closed = false;
+
+    public RespClient(final String host, final int port, final int timeoutMillis) throws IOException {
+        this(Endpoint.tcp(host, port), timeoutMillis);
+    }
+
+    public RespClient(final Endpoint endpoint, final int timeoutMillis) throws IOException {
+        this.timeoutMillis = timeoutMillis;
+        this.channel = endpoint.isUnix() ? openUnixChannel() : SocketChannel.open();
+        Selector selector = null;
+        try {
+            channel.configureBlocking(false);
+            if (!endpoint.isUnix()) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            selector = Selector.open();
+            this.selector = selector;
+            this.key = channel.register(selector, 0);
+            final SocketAddress address = endpoint.isUnix()
+                ? unixSocketAddress(endpoint.socket)
+                : new InetSocketAddress(endpoint.host, endpoint.port);
+            if (!channel.connect(address)) {
+                await(SelectionKey.OP_CONNECT);
+                channel.finishConnect();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (selector != null) selector.close();
+            channel.close();
+            throw e;
+        }
+        this.in = takeBuffer();
+        this.in.flip();
+        this.out = takeBuffer();
+    }
+
+    public static RespClient connect(final int port) throws IOException {
+        return new RespClient(DEFAULT_HOST, port, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public static RespClient connect(final Endpoint endpoint) throws IOException {
+        return new RespClient(endpoint, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public static Object command(final int port, final String... args) throws IOException {
+        try (final RespClient client = connect(port)) {
+            return client.call(args);
+        }
+    }
+
+    public static Object command(final Endpoint endpoint, final String... args) throws IOException {
+        try (final RespClient client = connect(endpoint)) {
+            return client.call(args);
+        }
+    }
+
+    public static boolean isUnixSocketSupported() {
+        try {
+            Class.forName("java.net.UnixDomainSocketAddress");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public Object call(final String... args) throws IOException {
+        return send(args).read();
+    }
+
+    public Object call(final byte[]... args) throws IOException {
+        return send(args).readBinary();
+    }
+
+    public RespClient send(final String... args) throws IOException {
+        writeHeader('*', args.length);
+        for (final String arg : args) {
+            writeBulk(arg.getBytes(UTF_8));
+        }
+        return this;
+    }
+
+    public RespClient send(final byte[]... args) throws IOException {
+        writeHeader('*', args.length);
+        for (final byte[] arg : args) {
+            writeBulk(arg);
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            if (channel.write(out) == 0) await(SelectionKey.OP_WRITE);
+        }
+        out.clear();
+    }
+
+    public Object read() throws IOException {
+        return read(false);
+    }
+
+    public Object readBinary() throws IOException {
+        return read(true);
+    }
+
+    public void readOk() throws IOException {
+        final byte type = nextReplyType();
+        if (type == '+') {
+            int length = 0;
+            boolean ok = true;
+            byte b; while ((b = readByte()) != '\r') {
+                ok &= length < 2 && b == "OK".charAt(length);
+                length++;
+            }
+            readByte();
+            if (ok && length == 2) return;
+            throw new IOException("Expected OK but got another status reply");
+        }
+        throw unexpected("OK", type);
+    }
+
+    public long readLong() throws IOException {
+        final byte type = nextReplyType();
+        if (type == ':') return readNumber();
+        throw unexpected("an integer", type);
+    }
+
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            selector.close();
+        } finally {
+            channel.close();
+            returnBuffer(in);
+            returnBuffer(out);
+        }
+    }
+
+    private Object read(final boolean binary) throws IOException {
+        final Object reply = readValue(nextReplyType(), binary);
+        if (reply instanceof RespError) throw (RespError) reply;
+        return reply;
+    }
+
+    private byte nextReplyType() throws IOException {
+        if (out.position() > 0) flush();
+        return readByte();
+    }
+
+    private IOException unexpected(final String expected, final byte type) throws IOException {
+        final Object reply = readValue(type, false);
+        if (reply instanceof RespError) return (RespError) reply;
+        return new IOException("Expected " + expected + " but got " + reply);
+    }
+
+    private Object readValue(final byte type, final boolean binary) throws IOException {
+        switch (type) {
+            case '+': return readLine();
+            case '-': return new RespError(readLine());
+            case ':': return readNumber();
+            case '$': {
+                final long length = readNumber();
+                if (length < 0) return null;
+                final byte[] bytes = readBulk(length);
+                return binary ? bytes : new String(bytes, UTF_8);
+            }
+            case '*':
+            case '>': {
+                final long count = readNumber();
+                if (count < 0) return null;
+                final List<Object> items = new ArrayList<>((int) count);
+                for (long i = 0; i < count; i++) items.add(readValue(readByte(), binary));
+                return items;
+            }
+            case '~': {
+                final long count = readNumber();
+                final Set<Object> items = new LinkedHashSet<>();
+                for (long i = 0; i < count; i++) items.add(readValue(readByte(), binary));
+                return items;
+            }
+            case '%': {
+                final long count = readNumber();
+                final Map<Object, Object> entries = new LinkedHashMap<>();
+                for (long i = 0; i < count; i++) {
+                    final Object key = readValue(readByte(), false);
+                    entries.put(key, readValue(readByte(), binary));
+                }
+                return entries;
+            }
+            case '|': {
+                final long count = readNumber();
+                for (long i = 0; i < count * 2; i++) readValue(readByte(), false);
+                return readValue(readByte(), binary);
+            }
+            case '_': readLine(); return null;
+            case '#': return readLine().equals("t");
+            case ',': return parseDouble(readLine());
+            case '(': return new BigInteger(readLine());
+            case '!': return new RespError(new String(readBulk(readNumber()), UTF_8));
+            case '=': {
+                final String text = new String(readBulk(readNumber()), UTF_8);
+                return text.length() >= 4 && text.charAt(3) == ':' ? text.substring(4) : text;
+            }
+            default: throw new IOException("Unexpected reply type '" + (char) type + "'");
+        }
+    }
+
+    private static double parseDouble(final String value) {
+        switch (value) {
+            case "inf": return Double.POSITIVE_INFINITY;
+            case "-inf": return Double.NEGATIVE_INFINITY;
+            case "nan": return Double.NaN;
+            default: return Double.parseDouble(value);
+        }
+    }
+
+    private byte[] readBulk(final long length) throws IOException {
+        if (length > Integer.MAX_VALUE - 8) throw new IOException("Bulk reply of " + length + " bytes is too large");
+        final byte[] bytes = new byte[(int) length];
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!in.hasRemaining()) fill();
+            final int chunk = Math.min(in.remaining(), bytes.length - offset);
+            in.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        readByte();
+        readByte();
+        return bytes;
+    }
+
+    private long readNumber() throws IOException {
+        byte b = readByte();
+        final boolean negative = b == '-';
+        if (negative) b = readByte();
+        long value = 0;
+        while (b != '\r') {
+            if (b < '0' || b > '9') throw new IOException("Malformed number in reply");
+            value = value * 10 + (b - '0');
+            b = readByte();
+        }
+        readByte();
+        return negative ? -value : value;
+    }
+
+    private String readLine() throws IOException {
+        final StringBuilder line = new StringBuilder();
+        byte b; while ((b = readByte()) != '\r') {
+            line.append((char) (b & 0xFF));
+        }
+        readByte();
+        return line.toString();
+    }
+
+    private byte readByte() throws IOException {
+        if (!in.hasRemaining()) fill();
+        return in.get();
+    }
+
+    private void fill() throws IOException {
+        in.compact();
+        try {
+            int read;
+            while ((read = channel.read(in)) == 0) {
+                await(SelectionKey.OP_READ);
+            }
+            if (read < 0) throw new EOFException("Connection closed while reading reply");
+        } finally {
+            in.flip();
+        }
+    }
+
+    private void writeHeader(final char type, final long value) throws IOException {
+        ensureWritable(digits.length + 3);
+        out.put((byte) type);
+        long remaining = value;
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        out.put(digits, position, digits.length - position);
+        out.put((byte) '\r').put((byte) '\n');
+    }
+
+    private void writeBulk(final byte[] bytes) throws IOException {
+        writeHeader('$', bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!out.hasRemaining()) flush();
+            final int chunk = Math.min(out.remaining(), bytes.length - offset);
+            out.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+        ensureWritable(2);
+        out.put((byte) '\r').put((byte) '\n');
+    }
+
+    private void ensureWritable(final int bytes) throws IOException {
+        if (out.remaining() < bytes) flush();
+    }
+
+    private void await(final int operation) throws IOException {
+        key.interestOps(operation);
+        if (selector.select(timeoutMillis) == 0)
+            throw new SocketTimeoutException("Redis did not respond within " + timeoutMillis + "ms");
+        selector.selectedKeys().clear();
+        key.interestOps(0);
+    }
+
+    private static SocketChannel openUnixChannel() throws IOException {
+        try {
+            final ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            return (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+        } catch (IllegalArgumentException | ReflectiveOperationException e) {
+            throw new IOException("Unix domain sockets need Java 16 or newer", e);
+        }
+    }
+
+    private static SocketAddress unixSocketAddress(final Path socket) throws IOException {
+        try {
+            return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                .getMethod("of", Path.class).invoke(null, socket);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Unix domain sockets need Java 16 or newer", e);
+        }
+    }
+
+    private static ByteBuffer takeBuffer() {
+        final ByteBuffer buffer = BUFFERS.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private static void returnBuffer(final ByteBuffer buffer) {
+        buffer.clear();
+        if (BUFFERS.size() < MAX_POOLED_BUFFERS) BUFFERS.offer(buffer);
+    }
+
+}
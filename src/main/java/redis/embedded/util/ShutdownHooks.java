@@ -0,0 +1,61 @@
+package redis.embedded.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One JVM shutdown hook for every running instance. Owners register when they start and unregister when they stop,
+ * so long-lived JVMs that start thousands of instances do not pile up hook threads.
+ */
+public enum ShutdownHooks {;
+
+    private static final long JOIN_TIMEOUT_MILLIS = 30_000L;
+    private static final Map<Object, CheckedRunnable> HOOKS = new ConcurrentHashMap<>();
+
+    private static final class Installed {
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(ShutdownHooks::runAll, "RedisInstanceCleaner"));
+        }
+        private static void ensure() {}
+    }
+
+    public static void register(final Object owner, final CheckedRunnable cleanup) {
+        Installed.ensure();
+        HOOKS.put(owner, cleanup);
+    }
+
+    public static void unregister(final Object owner) {
+        HOOKS.remove(owner);
+    }
+
+    public static int registered() {
+        return HOOKS.size();
+    }
+
+    // Owners clean up in parallel so a JVM with many instances does not exit one stop timeout at a time
+    private static void runAll() {
+        final List<Thread> threads = new ArrayList<>();
+        for (final CheckedRunnable cleanup : HOOKS.values()) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    cleanup.run();
+                } catch (Exception e) {
+                    /* nothing left to report to */
+                }
+            }, "RedisInstanceCleaner-" + threads.size());
+            thread.start();
+            threads.add(thread);
+        }
+        final long deadline = System.currentTimeMillis() + JOIN_TIMEOUT_MILLIS;
+        for (final Thread thread : threads) {
+            try {
+                thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package redis.embedded;
+
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.core.PortLeases;
+import redis.embedded.model.RedisVersion;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.core.ExecutableProvider.newEmbeddedRedisProvider;
+import static redis.embedded.model.StartupPhase.STOP_SHUTDOWN_COMMAND;
+import static redis.embedded.model.StartupPhase.STOP_SIGTERM;
+
+public class LazyRedisServerTest {
+
+    @Test
+    public void shouldStartRedisOnTheFirstConnection() throws IOException {
+        final LazyRedisServer server = newRedisServer().port(6389).buildLazy();
+        server.start();
+        try {
+            assertTrue(server.isActive());
+            assertFalse(server.isBackendRunning());
+
+            try (final Jedis jedis = new Jedis("localhost", 6389)) {
+                jedis.set("lazy", "value");
+                assertTrue(server.isBackendRunning());
+                try (final Jedis other = new Jedis("localhost", 6389)) {
+                    assertEquals("value", other.get("lazy"));
+                }
+            }
+            assertEquals(2, server.acceptedConnections());
+            assertNotEquals(6389, server.backend().ports().get(0).intValue());
+        } finally {
+            server.stop();
+        }
+        assertFalse(server.isBackendRunning());
+        try (final RespClient client = RespClient.connect(6389)) {
+            fail("Nothing should listen on the port after stop");
+        } catch (IOException expected) {
+            /* port released */
+        }
+    }
+
+    @Test
+    public void shouldNotHoldALeaseWhileNobodyConnects() throws IOException {
+        final LazyRedisServer server = newRedisServer().port(6389).buildLazy();
+        final int backendPort = server.backend().ports().get(0);
+        assertFalse(PortLeases.shared().isLeased(backendPort));
+        server.start();
+        server.stop();
+        assertFalse(PortLeases.shared().isLeased(backendPort));
+    }
+
+    @Test
+    public void shouldHandThePortToRedisAfterIdle() throws IOException, InterruptedException {
+        if (!RedisVersion.of(newEmbeddedRedisProvider().get()).atLeast(7, 0)) {
+            try {
+                newRedisServer().port(6390).handoffAfterIdleMilliseconds(100).buildLazy();
+                fail("Redis before 7.0 can not change its port at runtime");
+            } catch (IllegalArgumentException expected) {
+                return;
+            }
+        }
+        final LazyRedisServer server = newRedisServer().port(6390).handoffAfterIdleMilliseconds(100).buildLazy();
+        server.start();
+        try {
+            assertEquals("PONG", RespClient.command(6390, "PING"));
+            for (int i = 0; i < 50 && !server.isHandedOff(); i++) Thread.sleep(20);
+            assertTrue(server.isHandedOff());
+            assertEquals("PONG", RespClient.command(6390, "PING"));
+            assertEquals(1, server.acceptedConnections());
+            assertEquals(Collections.singletonList(6390), server.backend().ports());
+        } finally {
+            server.stop();
+        }
+        assertTrue(server.startupStats().nanos(STOP_SHUTDOWN_COMMAND) > 0);
+        assertEquals(0, server.startupStats().nanos(STOP_SIGTERM));
+    }
+
+}
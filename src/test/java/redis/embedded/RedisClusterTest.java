@@ -2,6 +2,7 @@ package redis.embedded;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisSentinelPool;
 import redis.embedded.core.RedisSentinelBuilder;
@@ -11,14 +12,21 @@ import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.UnknownHostException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 import static redis.embedded.util.Collections.newHashSet;
 
 public class RedisClusterTest {
@@ -79,6 +87,67 @@ public class RedisClusterTest {
         }
     }
 
+    @Test
+    public void asyncStartAndStopShouldUseTheGivenExecutor() throws Exception {
+        final List<Redis> sentinels = Collections.singletonList(sentinel1);
+        final List<Redis> servers = Arrays.asList(master1, master2);
+        instance = new RedisCluster(sentinels, servers);
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName())).when(master1).start();
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName())).when(sentinel1).stop();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "caller-pool"));
+        try {
+            instance.startAsync(executor).get(10, TimeUnit.SECONDS);
+            instance.stopAsync(executor).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(Collections.singleton("caller-pool"), threads);
+        verify(master2).start();
+        verify(master2).stop();
+    }
+
+    @Test
+    public void startShouldStartReplicaAfterItsMasterAndSentinelsLast() throws IOException {
+        final Redis replica = mock(Redis.class);
+        final Map<Redis, List<Redis>> groups = new LinkedHashMap<>();
+        groups.put(master1, Collections.singletonList(replica));
+        groups.put(master2, Collections.<Redis>emptyList());
+        instance = new RedisCluster(Arrays.asList(sentinel1, sentinel2), groups, 2);
+
+        instance.start();
+
+        final InOrder order = inOrder(master1, replica, sentinel1);
+        order.verify(master1).start();
+        order.verify(replica).start();
+        order.verify(sentinel1).start();
+        verify(master2).start();
+        verify(sentinel2).start();
+    }
+
+    @Test
+    public void startShouldRollBackWhenANodeFails() throws IOException {
+        final Redis replica = mock(Redis.class);
+        doThrow(new IOException("boom")).when(replica).start();
+        final Map<Redis, List<Redis>> groups = new LinkedHashMap<>();
+        groups.put(master1, Collections.singletonList(replica));
+        instance = new RedisCluster(Arrays.asList(sentinel1, sentinel2), groups, 2);
+
+        try {
+            instance.start();
+            fail("Cluster start should have failed");
+        } catch (IOException e) {
+            assertEquals("boom", e.getMessage());
+        }
+
+        verify(master1).stop();
+        verify(replica, never()).stop();
+        verify(sentinel1, never()).start();
+        verify(sentinel2, never()).start();
+    }
+
     @Test
     public void isActiveShouldCheckEntireClusterIfAllActive() {
         given(sentinel1.isActive()).willReturn(true);
@@ -0,0 +1,99 @@
+package redis.embedded;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.core.PortLeases;
+import redis.embedded.core.RedisServerBuilder;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static redis.embedded.RedisDatabaseLeaser.newRedisDatabaseLeaser;
+import static redis.embedded.RedisServer.newRedisServer;
+
+public class RedisDatabaseLeaserTest {
+
+    private RedisDatabaseLeaser leaser;
+
+    @Before
+    public void setUp() {
+        leaser = newRedisDatabaseLeaser().databasesPerServer(2).maxServers(2).leaseTimeoutMilliseconds(500).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        leaser.close();
+    }
+
+    @Test
+    public void shouldFlushDatabaseOnReturn() throws IOException, InterruptedException {
+        final int database;
+        try (final RedisDatabaseLeaser.Lease lease = leaser.lease();
+             final Jedis jedis = new Jedis("localhost", lease.port())) {
+            database = lease.database();
+            jedis.select(database);
+            jedis.set("abc", "1");
+        }
+        while (leaser.availableDatabases() < 2) Thread.sleep(5);
+
+        try (final RedisDatabaseLeaser.Lease other = leaser.lease();
+             final RedisDatabaseLeaser.Lease again = leaser.lease();
+             final Jedis jedis = new Jedis("localhost", again.port())) {
+            assertEquals(database, again.database());
+            assertNotEquals(database, other.database());
+            jedis.select(database);
+            assertNull(jedis.get("abc"));
+        }
+        assertEquals(1, leaser.serverCount());
+    }
+
+    @Test
+    public void shouldScaleOutWhenEveryDatabaseIsTaken() throws IOException {
+        final Set<String> databases = new HashSet<>();
+        final RedisDatabaseLeaser.Lease[] leases = new RedisDatabaseLeaser.Lease[4];
+        for (int i = 0; i < leases.length; i++) {
+            leases[i] = leaser.lease();
+            assertTrue(databases.add(leases[i].port() + "/" + leases[i].database()));
+        }
+        assertEquals(2, leaser.serverCount());
+
+        try {
+            leaser.lease();
+            fail("Both servers are fully leased");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Timed out"));
+        } finally {
+            for (final RedisDatabaseLeaser.Lease lease : leases) lease.close();
+        }
+    }
+
+    @Test
+    public void shouldLeaseServerPortsUntilClosed() throws IOException {
+        final int port;
+        try (final RedisDatabaseLeaser.Lease lease = leaser.lease()) {
+            port = lease.port();
+        }
+        assertTrue(PortLeases.shared().isLeased(port));
+        leaser.close();
+        assertFalse(PortLeases.shared().isLeased(port));
+    }
+
+    @Test
+    public void shouldLeaveTheServerBuilderUntouched() throws IOException {
+        final RedisServerBuilder builder = newRedisServer().setting("maxmemory 64mb");
+        final List<String> before = builder.buildCommandArgs();
+        final RedisDatabaseLeaser custom = newRedisDatabaseLeaser().withServerBuilder(builder).databasesPerServer(2).build();
+        try (final RedisDatabaseLeaser.Lease lease = custom.lease()) {
+            assertNotEquals(6379, lease.port());
+        } finally {
+            custom.close();
+        }
+        assertEquals(before, builder.buildCommandArgs());
+    }
+
+}
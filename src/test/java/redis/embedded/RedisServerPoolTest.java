@@ -0,0 +1,93 @@
+package redis.embedded;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.core.PortLeases;
+import redis.embedded.core.RedisServerBuilder;
+import redis.embedded.model.PoolStats;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.RedisServerPool.newRedisServerPool;
+
+public class RedisServerPoolTest {
+
+    private RedisServerPool pool;
+
+    @Before
+    public void setUp() {
+        pool = newRedisServerPool().size(1).maxUses(3).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pool.close();
+    }
+
+    @Test
+    public void shouldResetServerOnReturn() throws IOException {
+        final int port;
+        try (final RedisServerPool.Lease lease = pool.lease();
+             final Jedis jedis = new Jedis("localhost", lease.port())) {
+            port = lease.port();
+            assertTrue(lease.server().isActive());
+            jedis.set("abc", "1");
+        }
+
+        try (final RedisServerPool.Lease lease = pool.lease();
+             final Jedis jedis = new Jedis("localhost", lease.port())) {
+            assertEquals(port, lease.port());
+            assertNull(jedis.get("abc"));
+        }
+
+        final PoolStats stats = pool.stats();
+        assertEquals(2, stats.leases);
+        assertTrue(stats.resets >= 1);
+    }
+
+    @Test
+    public void shouldRecycleServerAfterMaxUses() throws IOException {
+        RedisServer first = null;
+        for (int i = 0; i < 3; i++) {
+            try (final RedisServerPool.Lease lease = pool.lease()) {
+                if (first == null) first = lease.server();
+            }
+        }
+
+        try (final RedisServerPool.Lease lease = pool.lease()) {
+            assertNotSame(first, lease.server());
+            assertFalse(first.isActive());
+        }
+        assertEquals(1, pool.stats().recycled);
+    }
+
+    @Test
+    public void shouldReleaseLeasedPortsOfRetiredServers() throws IOException {
+        final int port;
+        try (final RedisServerPool.Lease lease = pool.lease()) {
+            port = lease.port();
+        }
+        assertTrue(PortLeases.shared().isLeased(port));
+        pool.close();
+        assertFalse(PortLeases.shared().isLeased(port));
+    }
+
+    @Test
+    public void shouldLeaveTheServerBuilderUntouched() throws IOException {
+        final RedisServerBuilder builder = newRedisServer().setting("maxmemory 64mb");
+        final List<String> before = builder.buildCommandArgs();
+        final RedisServerPool custom = newRedisServerPool().withServerBuilder(builder).size(1).build();
+        try (final RedisServerPool.Lease lease = custom.lease()) {
+            assertTrue(lease.server().isActive());
+        } finally {
+            custom.close();
+        }
+        assertEquals(before, builder.buildCommandArgs());
+    }
+
+}
@@ -5,15 +5,36 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.embedded.core.ExecutableProvider;
 import redis.embedded.core.ExecutableProviderBuilder;
+import redis.embedded.core.PortLeases;
+import redis.embedded.core.ServerProfile;
+import redis.embedded.model.Checkpoint;
+import redis.embedded.model.Endpoint;
+import redis.embedded.model.ShutdownMode;
+import redis.embedded.model.StartupPhase;
+import redis.embedded.model.StartupStats;
+import redis.embedded.util.RespClient;
+import redis.embedded.util.ShutdownHooks;
 
 import java.io.*;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 import static redis.embedded.RedisServer.SERVER_READY_PATTERN;
 import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.core.ReadinessStrategy.newPingReadinessStrategy;
 import static redis.embedded.model.Architecture.*;
 import static redis.embedded.model.OS.*;
+import static redis.embedded.model.StartupPhase.*;
 
 public class RedisServerTest {
 
@@ -106,6 +127,345 @@ public class RedisServerTest {
                 .build();
     }
 
+    @Test
+    public void shouldBecomeReadyThroughPing() throws IOException {
+        redisServer = newRedisServer()
+                .port(6381)
+                .readinessStrategy(newPingReadinessStrategy())
+                .build();
+        redisServer.start();
+        assertTrue(redisServer.isActive());
+        redisServer.stop();
+    }
+
+    @Test(timeout = 5000L)
+    public void shouldFailWhenNotReadyBeforeDeadline() throws IOException {
+        redisServer = newRedisServer()
+                .port(6381)
+                .readinessStrategy(context -> new CompletableFuture<>())
+                .startupTimeoutMilliseconds(300)
+                .build();
+        try {
+            redisServer.start();
+            fail("Start should have timed out");
+        } catch (IOException e) {
+            assertTrue(e.getCause().getMessage().contains("did not become ready within 300ms"));
+            assertFalse(redisServer.isActive());
+        }
+    }
+
+    @Test
+    public void shouldKeepRecentLogLinesAndFeedSink() throws Exception {
+        final List<String> sunk = new CopyOnWriteArrayList<>();
+        redisServer = newRedisServer()
+                .port(6381)
+                .logSink((instance, source, line) -> sunk.add(line))
+                .logBufferLines(8)
+                .build();
+        redisServer.start();
+        try {
+            final long deadline = System.currentTimeMillis() + 2000;
+            while (!containsReadyLine(redisServer.recentLog(8)) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(containsReadyLine(redisServer.recentLog(8)));
+            assertTrue(containsReadyLine(sunk));
+            assertTrue(redisServer.recentLog(100).size() <= 8);
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldRecordEveryLifecyclePhase() throws IOException {
+        redisServer = newRedisServer().port(6381).build();
+        redisServer.start();
+        redisServer.stop();
+
+        final StartupStats stats = redisServer.startupStats();
+        for (final StartupPhase phase : Arrays.asList(EXECUTABLE_RESOLUTION, CONFIG_MATERIALIZATION, PROCESS_SPAWN,
+                READINESS, STOP, STOP_SHUTDOWN_COMMAND)) {
+            assertTrue(phase + " was not recorded", stats.nanos(phase) > 0);
+        }
+        assertEquals(0, stats.nanos(STOP_SIGTERM));
+        assertEquals(0, stats.nanos(STOP_SIGKILL));
+        assertTrue(stats.startupNanos() >= stats.nanos(StartupPhase.READINESS));
+    }
+
+    @Test
+    public void shouldEscalateToSigtermWhenShutdownIsRefused() throws IOException {
+        redisServer = newRedisServer()
+                .port(6381)
+                .setting("rename-command SHUTDOWN \"\"")
+                .build();
+        redisServer.start();
+        redisServer.stop();
+
+        assertFalse(redisServer.isActive());
+        assertTrue(redisServer.startupStats().nanos(STOP_SIGTERM) > 0);
+        assertEquals(0, redisServer.startupStats().nanos(STOP_SIGKILL));
+    }
+
+    @Test
+    public void shouldRebindLeasedPortWhenAddressIsInUse() throws IOException {
+        redisServer = newRedisServer().leasedPort().build();
+        final int leased = redisServer.ports().get(0);
+        try (final ServerSocket squatter = new ServerSocket(leased)) {
+            redisServer.start();
+            final int port = redisServer.ports().get(0);
+            assertNotEquals(leased, port);
+            assertEquals("PONG", RespClient.command(port, "PING"));
+        } finally {
+            redisServer.stop();
+        }
+        assertFalse(PortLeases.shared().isLeased(redisServer.ports().get(0)));
+    }
+
+    @Test
+    public void shouldReleaseLeasedPortWhenNeverStarted() throws IOException {
+        redisServer = newRedisServer().leasedPort().build();
+        final int leased = redisServer.ports().get(0);
+        assertTrue(PortLeases.shared().isLeased(leased));
+        redisServer.stop();
+        assertFalse(PortLeases.shared().isLeased(leased));
+    }
+
+    @Test
+    public void shouldOnlyReleasePortsItLeased() throws IOException {
+        final int port = PortLeases.shared().lease();
+        try {
+            redisServer = newRedisServer().port(port).build();
+            redisServer.start();
+            redisServer.stop();
+            assertTrue(PortLeases.shared().isLeased(port));
+        } finally {
+            PortLeases.shared().release(port);
+        }
+    }
+
+    @Test
+    public void shouldReleaseLeasedPortWhenStartFails() throws IOException {
+        redisServer = newRedisServer().leasedPort().setting("loadmodule /nonexistent/module.so").build();
+        try {
+            redisServer.start();
+            fail("Server should not start with a missing module");
+        } catch (IOException expected) {
+            assertFalse(PortLeases.shared().isLeased(redisServer.ports().get(0)));
+        }
+    }
+
+    @Test
+    public void shouldApplyProfilesBeforeSettings() throws IOException {
+        redisServer = newRedisServer().port(6385)
+            .profile(ServerProfile.ephemeralFast().and(ServerProfile.multiCoreIo(2)))
+            .setting("appendfsync everysec")
+            .build();
+        redisServer.start();
+        try (final RespClient client = RespClient.connect(6385)) {
+            assertEquals(Arrays.asList("save", ""), client.call("CONFIG", "GET", "save"));
+            assertEquals(Arrays.asList("appendonly", "no"), client.call("CONFIG", "GET", "appendonly"));
+            assertEquals(Arrays.asList("lazyfree-lazy-user-flush", "yes"), client.call("CONFIG", "GET", "lazyfree-lazy-user-flush"));
+            assertEquals(Arrays.asList("io-threads", "2"), client.call("CONFIG", "GET", "io-threads"));
+            assertEquals(Arrays.asList("appendfsync", "everysec"), client.call("CONFIG", "GET", "appendfsync"));
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldRejectMisspelledSettingsBeforeStarting() throws IOException {
+        try {
+            newRedisServer().strictDirectives(true).setting("maxmemroy 64mb").build();
+            fail("maxmemroy is not a directive");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("did you mean 'maxmemory'"));
+        }
+    }
+
+    @Test
+    public void shouldPassDirectivesItDoesNotKnowToRedis() throws IOException {
+        final List<String> args = newRedisServer().setting("hash-max-zipmap-entries 64").buildCommandArgs();
+        assertTrue(args.contains("--hash-max-zipmap-entries"));
+    }
+
+    @Test
+    public void shouldRemoveWorkingDirectoryOnStop() throws IOException {
+        final Path root = Files.createTempDirectory("redis-work-root");
+        redisServer = newRedisServer().port(6386).workingDirectoryRoot(root).build();
+        final Path workingDirectory = redisServer.workingDirectory();
+        assertEquals(root.toAbsolutePath(), workingDirectory.getParent());
+        assertFalse(Files.exists(workingDirectory));
+
+        final int hooks = ShutdownHooks.registered();
+        redisServer.start();
+        try {
+            assertTrue(Files.isDirectory(workingDirectory));
+            assertEquals(hooks + 1, ShutdownHooks.registered());
+            RespClient.command(6386, "SAVE");
+            assertTrue(Files.exists(workingDirectory.resolve("dump.rdb")));
+        } finally {
+            redisServer.stop();
+        }
+        assertFalse(Files.exists(workingDirectory));
+        assertEquals(hooks, ShutdownHooks.registered());
+        Files.delete(root);
+    }
+
+    @Test
+    public void shouldKeepSnapshotBetweenRestartsWhenSaving() throws IOException {
+        redisServer = newRedisServer().port(6386).shutdownMode(ShutdownMode.SAVE).build();
+        redisServer.start();
+        try {
+            RespClient.command(6386, "SET", "survives", "restart");
+            redisServer.stop();
+            assertTrue(Files.exists(redisServer.workingDirectory().resolve("dump.rdb")));
+            redisServer.start();
+            assertEquals("restart", RespClient.command(6386, "GET", "survives"));
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldServeOverUnixSocketOnly() throws IOException {
+        assumeTrue(RespClient.isUnixSocketSupported() && !System.getProperty("os.name").startsWith("Windows"));
+        redisServer = newRedisServer().unixSocketOnly().build();
+        redisServer.start();
+        try {
+            assertTrue(redisServer.ports().isEmpty());
+            final Endpoint endpoint = redisServer.endpoints().get(0);
+            assertTrue(endpoint.isUnix());
+            assertEquals("PONG", RespClient.command(endpoint, "PING"));
+            assertTrue(String.valueOf(RespClient.command(endpoint, "CONFIG", "GET", "port")).contains("0"));
+        } finally {
+            redisServer.stop();
+        }
+        assertFalse(redisServer.isActive());
+        assertTrue(redisServer.startupStats().nanos(STOP_SHUTDOWN_COMMAND) > 0);
+        assertEquals(0, redisServer.startupStats().nanos(STOP_SIGTERM));
+    }
+
+    @Test
+    public void shouldBootFromDataset() throws IOException {
+        final Path fixture = Files.createTempFile("embedded-redis-fixture", ".rdb");
+        try {
+            redisServer = newRedisServer().port(6381).build();
+            redisServer.start();
+            try (final RespClient client = RespClient.connect(6381)) {
+                for (int i = 0; i < 1000; i++) client.call("SET", "key" + i, "value" + i);
+                client.call("SAVE");
+                final List<?> dir = (List<?>) client.call("CONFIG", "GET", "dir");
+                Files.copy(Paths.get(dir.get(1).toString(), "dump.rdb"), fixture, REPLACE_EXISTING);
+            } finally {
+                redisServer.stop();
+            }
+            final byte[] original = Files.readAllBytes(fixture);
+
+            redisServer = newRedisServer().port(6381).dataset(fixture).build();
+            redisServer.start();
+            try (final RespClient client = RespClient.connect(6381)) {
+                assertEquals(1000L, client.call("DBSIZE"));
+                assertEquals("value42", client.call("GET", "key42"));
+                client.call("FLUSHALL");
+                client.call("SAVE");
+            } finally {
+                redisServer.stop();
+            }
+            assertArrayEquals(original, Files.readAllBytes(fixture));
+            assertTrue(redisServer.startupStats().nanos(StartupPhase.DATASET_PLACEMENT) > 0);
+        } finally {
+            Files.deleteIfExists(fixture);
+        }
+    }
+
+    @Test
+    public void shouldSwitchReplicationAtRuntime() throws IOException {
+        final RedisServer master = newRedisServer().port(6381).build();
+        final RedisServer replica = newRedisServer().port(6382).build();
+        master.start();
+        replica.start();
+        try {
+            replica.replicaOf("127.0.0.1", 6381);
+            assertTrue(String.valueOf(RespClient.command(6382, "INFO", "replication")).contains("role:slave"));
+            replica.promoteToMaster();
+            assertTrue(String.valueOf(RespClient.command(6382, "INFO", "replication")).contains("role:master"));
+        } finally {
+            replica.stop();
+            master.stop();
+        }
+    }
+
+    @Test
+    public void shouldRestoreCheckpointWithoutRestart() throws IOException {
+        redisServer = newRedisServer().port(6381).build();
+        redisServer.start();
+        try (final RespClient client = RespClient.connect(6381)) {
+            for (int i = 0; i < 2500; i++) client.send("SET", "key" + i, "value" + i);
+            for (int i = 0; i < 2500; i++) client.readOk();
+            client.call("HSET", "hash", "field", "value");
+            client.call("SET", "expiring", "soon", "PX", "600000");
+            client.call("SELECT", "3");
+            client.call("RPUSH", "list", "a", "b", "c");
+
+            final Checkpoint checkpoint = redisServer.checkpoint();
+            assertEquals(2503, checkpoint.keyCount());
+            final String runId = runId(client);
+
+            client.call("FLUSHALL");
+            client.call("SELECT", "0");
+            client.call("SET", "stray", "value");
+            redisServer.restore(checkpoint);
+
+            assertEquals(2502L, client.call("DBSIZE"));
+            assertNull(client.call("GET", "stray"));
+            assertEquals("value1234", client.call("GET", "key1234"));
+            assertEquals("value", client.call("HGET", "hash", "field"));
+            final long ttl = (Long) client.call("PTTL", "expiring");
+            assertTrue(ttl > 0 && ttl <= 600000);
+            client.call("SELECT", "3");
+            assertEquals(Arrays.asList("a", "b", "c"), client.call("LRANGE", "list", "0", "-1"));
+            assertEquals(runId, runId(client));
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    public void restoreShouldKeepExpiriesAbsolute() throws IOException, InterruptedException {
+        redisServer = newRedisServer().port(6381).build();
+        redisServer.start();
+        try (final RespClient client = RespClient.connect(6381)) {
+            client.call("SET", "short", "value", "PX", "300");
+            client.call("SET", "long", "value", "PX", "5000");
+            client.call("SET", "forever", "value");
+
+            final Checkpoint checkpoint = redisServer.checkpoint();
+            assertEquals(3, checkpoint.keyCount());
+            Thread.sleep(1000);
+            redisServer.restore(checkpoint);
+
+            assertNull(client.call("GET", "short"));
+            final long ttl = (Long) client.call("PTTL", "long");
+            assertTrue(ttl > 0 && ttl <= 4000);
+            assertEquals(-1L, client.call("PTTL", "forever"));
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    private static String runId(final RespClient client) throws IOException {
+        final String info = String.valueOf(client.call("INFO", "server"));
+        final int start = info.indexOf("run_id:") + "run_id:".length();
+        return info.substring(start, info.indexOf('\r', start));
+    }
+
+    private static boolean containsReadyLine(final List<String> lines) {
+        for (final String line : lines) {
+            if (SERVER_READY_PATTERN.matcher(line).matches()) return true;
+        }
+        return false;
+    }
+
     @Test(expected = FileNotFoundException.class)
     public void shouldFailWhenBadExecutableGiven() throws IOException {
         ExecutableProvider buggyProvider = new ExecutableProviderBuilder()
@@ -0,0 +1,69 @@
+package redis.embedded;
+
+import org.junit.After;
+import org.junit.Test;
+import redis.embedded.error.RespError;
+import redis.embedded.model.ClusterShard;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static redis.embedded.RedisShardedCluster.newRedisShardedCluster;
+import static redis.embedded.core.LogSink.newDiscardingLogSink;
+import static redis.embedded.RedisServer.newRedisServer;
+
+public class RedisShardedClusterTest {
+
+    private RedisShardedCluster cluster;
+
+    @After
+    public void tearDown() throws IOException {
+        if (cluster != null) cluster.stop();
+    }
+
+    @Test
+    public void shouldFormClusterCoveringAllSlots() throws IOException {
+        cluster = newRedisShardedCluster()
+            .withServerBuilder(newRedisServer().logSink(newDiscardingLogSink()))
+            .ephemeral()
+            .shards(3)
+            .replicasPerShard(1)
+            .build();
+        cluster.start();
+
+        final List<ClusterShard> shards = cluster.shards();
+        assertEquals(3, shards.size());
+        assertEquals(0, shards.get(0).firstSlot);
+        assertEquals(16383, shards.get(2).lastSlot);
+        assertEquals(6, cluster.ports().size());
+
+        final String info = String.valueOf(RespClient.command(shards.get(1).replicaPorts.get(0), "CLUSTER", "INFO"));
+        assertTrue(info.contains("cluster_state:ok"));
+        assertTrue(info.contains("cluster_slots_assigned:16384"));
+        assertTrue(info.contains("cluster_known_nodes:6"));
+    }
+
+    @Test
+    public void shouldRouteKeysToOwningShard() throws IOException {
+        cluster = newRedisShardedCluster()
+            .withServerBuilder(newRedisServer().logSink(newDiscardingLogSink()))
+            .ephemeral()
+            .shards(2)
+            .build();
+        cluster.start();
+
+        final ClusterShard owner = cluster.shardForKey("foo");
+        assertEquals("OK", RespClient.command(owner.masterPort, "SET", "foo", "bar"));
+
+        final ClusterShard other = cluster.shards().get(owner == cluster.shards().get(0) ? 1 : 0);
+        try {
+            RespClient.command(other.masterPort, "GET", "foo");
+            fail("Expected a MOVED redirect");
+        } catch (RespError e) {
+            assertEquals("MOVED 12182 127.0.0.1:" + owner.masterPort, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package redis.embedded;
+
+import org.junit.Test;
+import redis.embedded.model.ResourceSample;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.ResourceSampler.newResourceSampler;
+import static redis.embedded.core.SampleListener.newMetricSampleListener;
+
+public class ResourceSamplerTest {
+
+    @Test
+    public void shouldSampleRunningInstances() throws IOException {
+        final Map<String, Double> gauges = new ConcurrentHashMap<>();
+        final RedisServer server = newRedisServer().port(6387).build();
+        server.start();
+        try (final ResourceSampler sampler = newResourceSampler().intervalMilliseconds(60_000)
+                .listener(newMetricSampleListener((name, instance, value) -> gauges.put(instance + "/" + name, value)))
+                .build()) {
+            RespClient.command(6387, "GET", "missing");
+
+            final ResourceSample sample = find(sampler.sampleNow(), "RedisServer:6387");
+            assertNotNull(sample);
+            assertEquals(sample.usedMemoryBytes, gauges.get("RedisServer:6387/redis.embedded.memory.used"), 0.0);
+            assertEquals(server.pid(), sample.pid);
+            assertTrue(sample.usedMemoryBytes > 0);
+            assertEquals(0, sample.connectedClients);
+            assertTrue(sample.keyspaceMisses >= 1);
+            if (System.getProperty("os.name").startsWith("Linux")) {
+                assertTrue(sample.rssBytes > 0);
+                assertTrue(sample.cpuTimeNanos > 0);
+                assertFalse(Double.isNaN(find(sampler.sampleNow(), "RedisServer:6387").cpuUtilization));
+            }
+
+            server.stop();
+            assertNull(find(sampler.sampleNow(), "RedisServer:6387"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void shouldReadInfoFields() {
+        final String info = "# Stats\r\ntotal_connections_received:3\r\ninstantaneous_ops_per_sec:42\r\nkeyspace_hits:7\r\n";
+        assertEquals(3, ResourceSampler.infoField(info.substring(9), "total_connections_received"));
+        assertEquals(42, ResourceSampler.infoField(info, "instantaneous_ops_per_sec"));
+        assertEquals(7, ResourceSampler.infoField(info, "keyspace_hits"));
+        assertEquals(-1, ResourceSampler.infoField(info, "keyspace_misses"));
+    }
+
+    private static ResourceSample find(final List<ResourceSample> samples, final String instance) {
+        for (final ResourceSample sample : samples) {
+            if (sample.instance.equals(instance)) return sample;
+        }
+        return null;
+    }
+}
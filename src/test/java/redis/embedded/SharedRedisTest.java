@@ -0,0 +1,86 @@
+package redis.embedded;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+import static redis.embedded.SharedRedis.newSharedRedis;
+import static redis.embedded.core.ReadinessStrategy.answersPing;
+import static redis.embedded.util.IO.deleteRecursively;
+
+public class SharedRedisTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("shared-redis");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        deleteRecursively(directory);
+    }
+
+    @Test
+    public void shouldStopTheServerWhenTheLastAttachmentDetaches() throws IOException {
+        final SharedRedis first = newSharedRedis().directory(directory).attach();
+        final SharedRedis second = newSharedRedis().directory(directory).attach();
+        final int port = first.port();
+
+        assertTrue(first.isOwner());
+        assertFalse(second.isOwner());
+        assertEquals(port, second.port());
+        assertNotEquals(first.database(), second.database());
+        assertNotEquals(first.keyPrefix(), second.keyPrefix());
+
+        first.close();
+        assertEquals("PONG", RespClient.command(port, "PING"));
+        second.close();
+        assertFalse(answersPing(port, -1));
+        assertFalse(Files.exists(directory.resolve("default.properties")));
+    }
+
+    @Test
+    public void shouldTearDownWhenTheOtherLeasesExpired() throws IOException, InterruptedException {
+        final SharedRedis alive = newSharedRedis().directory(directory).name("expiring")
+            .heartbeatMilliseconds(50).leaseExpiryMilliseconds(200).attach();
+        // Heartbeats far apart stand in for a JVM that died without detaching
+        final SharedRedis dead = newSharedRedis().directory(directory).name("expiring")
+            .heartbeatMilliseconds(60_000).leaseExpiryMilliseconds(100_000).attach();
+        final int port = alive.port();
+        assertEquals(port, dead.port());
+        Thread.sleep(300);
+
+        alive.close();
+        assertFalse(answersPing(port, -1));
+        dead.close();
+    }
+
+    @Test
+    public void shouldReplaceAnInstanceWhoseLeasesAllExpired() throws IOException, InterruptedException {
+        final SharedRedis dead = newSharedRedis().directory(directory).name("abandoned")
+            .heartbeatMilliseconds(60_000).leaseExpiryMilliseconds(100_000).attach();
+        final int port = dead.port();
+        Thread.sleep(300);
+
+        final SharedRedis fresh = newSharedRedis().directory(directory).name("abandoned")
+            .heartbeatMilliseconds(50).leaseExpiryMilliseconds(200).attach();
+        try {
+            assertTrue(fresh.isOwner());
+            assertFalse(answersPing(port, -1));
+            assertEquals("PONG", RespClient.command(fresh.port(), "PING"));
+        } finally {
+            fresh.close();
+            dead.close();
+        }
+        assertFalse(answersPing(fresh.port(), -1));
+    }
+
+}
@@ -0,0 +1,82 @@
+package redis.embedded.bench;
+
+import org.junit.Test;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.bench.LoadGenerator.newLoadGenerator;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void shouldReportPercentilesWithinOnePercent() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) histogram.record(value * 1000);
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(1000, histogram.min());
+        assertEquals(100_000_000, histogram.max());
+        assertEquals(50_000_000, histogram.percentile(50), 500_000);
+        assertEquals(99_000_000, histogram.percentile(99), 990_000);
+        assertEquals(histogram.max(), histogram.percentile(100));
+    }
+
+    @Test
+    public void shouldCorrectForCoordinatedOmission() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) histogram.recordCorrected(1_000, 10_000);
+        histogram.recordCorrected(1_000_000, 10_000);
+
+        // The stall hid 99 requests that would have been sent while waiting
+        assertEquals(199, histogram.count());
+        assertTrue(histogram.percentile(90) > 500_000);
+    }
+
+    @Test
+    public void shouldDrawZipfianKeysInsideTheKeyspace() {
+        final KeyDistribution keys = KeyDistribution.zipfian(1000);
+        final SplittableRandom random = new SplittableRandom(42);
+        int hot = 0;
+        for (int i = 0; i < 10_000; i++) {
+            final long key = keys.next(random);
+            assertTrue(key >= 0 && key < 1000);
+            if (key < 10) hot++;
+        }
+        assertTrue("The first 1% of keys should get far more than 1% of the draws", hot > 2000);
+    }
+
+    @Test
+    public void shouldRunClosedAndOpenLoop() throws IOException {
+        final RedisServer server = newRedisServer().port(6388).build();
+        server.start();
+        try {
+            final Workload workload = Workload.newWorkload()
+                .command(Workload.Command.GET, 70)
+                .command(Workload.Command.SET, 20)
+                .command(Workload.Command.INCR, 10)
+                .keys(KeyDistribution.zipfian(1000))
+                .valueSizes(SizeDistribution.uniform(16, 256));
+
+            final BenchResult closed = newLoadGenerator(server).workload(workload)
+                .connections(2).pipelineDepth(4).warmupMilliseconds(100).durationMilliseconds(300)
+                .run();
+            assertTrue(closed.operations > 0);
+            assertEquals(0, closed.errors);
+            assertEquals(closed.operations, closed.latencies.count());
+            assertTrue(closed.throughput() > 0);
+
+            final BenchResult open = newLoadGenerator(server).workload(workload)
+                .connections(2).warmupMilliseconds(100).durationMilliseconds(500).openLoop(2000)
+                .run();
+            assertEquals(LoadGenerator.Mode.OPEN_LOOP, open.mode);
+            assertEquals(1000, open.operations, 100);
+            assertTrue(open.percentileMicros(50) > 0);
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package redis.embedded.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ExecutableCacheTest {
+
+    private static final String RESOURCE = "/redis-server-5.0.14.1-windows-amd64.exe";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldExtractOnceAndReuse() throws IOException {
+        final ExecutableCache cache = new ExecutableCache(folder.getRoot().toPath());
+
+        final File first = cache.get(RESOURCE);
+        final File second = cache.get(RESOURCE);
+
+        assertEquals(first, second);
+        assertTrue(first.canExecute());
+        assertTrue(first.toPath().startsWith(folder.getRoot().toPath()));
+        assertEquals("redis-server-5.0.14.1-windows-amd64.exe", first.getName());
+    }
+
+    @Test
+    public void shouldReuseEntryAcrossCacheInstances() throws IOException {
+        final File first = new ExecutableCache(folder.getRoot().toPath()).get(RESOURCE);
+        final long modified = first.lastModified();
+
+        final File second = new ExecutableCache(folder.getRoot().toPath()).get(RESOURCE);
+
+        assertEquals(first, second);
+        assertEquals(modified, second.lastModified());
+    }
+
+    @Test
+    public void shouldReplaceCorruptedEntry() throws IOException {
+        final File executable = new ExecutableCache(folder.getRoot().toPath()).get(RESOURCE);
+        final long size = executable.length();
+        Files.write(executable.toPath(), new byte[] { 1, 2, 3 });
+
+        final File repaired = new ExecutableCache(folder.getRoot().toPath()).get(RESOURCE);
+
+        assertEquals(executable, repaired);
+        assertEquals(size, repaired.length());
+    }
+
+    @Test
+    public void shouldBeSafeUnderConcurrentFills() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<File>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> new ExecutableCache(folder.getRoot().toPath()).get(RESOURCE)));
+            }
+            final Set<File> files = new HashSet<>();
+            for (final Future<File> result : results) {
+                files.add(result.get());
+            }
+            assertEquals(1, files.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void shouldFailForMissingResource() throws IOException {
+        new ExecutableCache(folder.getRoot().toPath()).get("/does-not-exist");
+    }
+
+}
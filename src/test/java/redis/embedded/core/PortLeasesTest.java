@@ -0,0 +1,62 @@
+package redis.embedded.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PortLeasesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldNeverHandOutTheSamePortTwice() {
+        final PortLeases first = new PortLeases(folder.getRoot().toPath(), 21000, 21009);
+        final PortLeases second = new PortLeases(folder.getRoot().toPath(), 21000, 21009);
+
+        final Set<Integer> ports = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ports.add(first.lease()));
+            assertTrue(ports.add(second.lease()));
+        }
+        assertEquals(10, ports.size());
+        try {
+            first.lease();
+            fail("Range should be exhausted");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("21000"));
+        }
+    }
+
+    @Test
+    public void shouldMakeReleasedPortAvailableAgain() {
+        final PortLeases first = new PortLeases(folder.getRoot().toPath(), 21010, 21010);
+        final PortLeases second = new PortLeases(folder.getRoot().toPath(), 21010, 21010);
+
+        final int port = first.lease();
+        assertTrue(first.isLeased(port));
+        assertFalse(second.tryLease(port));
+        assertTrue(first.isLeased(port));
+
+        first.release(port);
+        assertFalse(first.isLeased(port));
+        assertTrue(second.tryLease(port));
+        second.release(port);
+    }
+
+    @Test
+    public void shouldSkipPortsThatAreAlreadyBound() throws IOException {
+        final PortLeases leases = new PortLeases(folder.getRoot().toPath(), 21020, 21021);
+        try (final ServerSocket taken = new ServerSocket(21020)) {
+            assertEquals(21021, leases.lease());
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package redis.embedded.core;
+
+import org.junit.Test;
+import redis.embedded.model.RedisVersion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class RedisConfigTest {
+
+    private static final RedisVersion REDIS_6_2 = new RedisVersion(6, 2, 6);
+
+    @Test
+    public void shouldKeepOnlyTheLastValueOfSingleValuedDirectives() {
+        final RedisConfig config = RedisConfig.parse("# comment\nmaxmemory 64mb\n\nappendonly no\nMAXMEMORY 128mb");
+        assertEquals(Arrays.asList("appendonly no", "maxmemory 128mb"), config.lines());
+        assertEquals(Collections.singletonList("128mb"), config.get("maxmemory"));
+        assertNull(config.get("port"));
+    }
+
+    @Test
+    public void shouldAppendRepeatableDirectives() {
+        final RedisConfig config = new RedisConfig()
+            .add("save \"\"")
+            .add("save 900 1")
+            .add("rename-command FLUSHALL \"\"");
+        assertEquals(Arrays.asList("--save", "", "--save", "900", "1", "--rename-command", "FLUSHALL", ""), config.toArgs());
+
+        config.override("save", "60", "1000");
+        assertEquals(Arrays.asList("rename-command FLUSHALL \"\"", "save 60 1000"), config.lines());
+    }
+
+    @Test
+    public void shouldMergeOnTopOfExistingDirectives() {
+        final RedisConfig base = RedisConfig.parse("appendonly yes\nsave 900 1\ndatabases 4");
+        base.merge(RedisConfig.parse("appendonly no\nsave 60 1"));
+        assertEquals(Arrays.asList("save 900 1", "databases 4", "appendonly no", "save 60 1"), base.lines());
+    }
+
+    @Test
+    public void shouldRoundTripQuotedArguments() {
+        final RedisConfig config = RedisConfig.parse("logfile \"/tmp/my logs/redis.log\"\nrequirepass 'it\\'s' \ndbfilename \"\\x64ump.rdb\"");
+        assertEquals(Collections.singletonList("/tmp/my logs/redis.log"), config.get("logfile"));
+        assertEquals(Collections.singletonList("dump.rdb"), config.get("dbfilename"));
+        assertEquals(Collections.singletonList("it's"), config.get("requirepass"));
+        assertEquals(config.lines(), RedisConfig.parse(config.toString()).lines());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnbalancedQuotes() {
+        RedisConfig.parse("requirepass \"secret");
+    }
+
+    @Test
+    public void shouldSuggestTheDirectiveThatWasMeant() {
+        try {
+            RedisConfig.parse("apendonly yes").validate(REDIS_6_2);
+            fail("apendonly is not a directive");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown Redis directive 'apendonly', did you mean 'appendonly'?", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldCheckDirectivesAgainstTheVersion() {
+        final RedisConfig config = RedisConfig.parse("cluster-port 17000\nsearch.timeout 500");
+        config.validate(new RedisVersion(7, 0, 0));
+        try {
+            config.validate(REDIS_6_2);
+            fail("cluster-port is not known to Redis 6.2");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("needs Redis 7.0.0"));
+        }
+    }
+
+    @Test
+    public void shouldParseConfigFiles() throws IOException {
+        final Path conf = Files.createTempFile("redis", ".conf");
+        try {
+            new RedisConfig().add("maxmemory", "64mb").add("dir", "/tmp/with space").writeTo(conf);
+            assertEquals(Collections.singletonList("/tmp/with space"), RedisConfig.parse(conf).get("dir"));
+        } finally {
+            Files.delete(conf);
+        }
+    }
+}
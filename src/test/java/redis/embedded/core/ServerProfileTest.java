@@ -0,0 +1,91 @@
+package redis.embedded.core;
+
+import org.junit.Test;
+import redis.embedded.model.RedisVersion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class ServerProfileTest {
+
+    private static final RedisVersion
+        WINDOWS_BINARY = new RedisVersion(5, 0, 14),
+        LINUX_BINARY = new RedisVersion(6, 2, 6);
+
+    @Test
+    public void shouldLeaveOutDirectivesOlderBinariesDoNotKnow() {
+        final List<String> settings = ServerProfile.ephemeralFast().settings(WINDOWS_BINARY);
+        assertTrue(settings.contains("appendonly no"));
+        assertTrue(settings.contains("lazyfree-lazy-expire yes"));
+        assertFalse(settings.contains("lazyfree-lazy-user-del yes"));
+        assertTrue(ServerProfile.ephemeralFast().settings(LINUX_BINARY).contains("lazyfree-lazy-user-flush yes"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIoThreadsBeforeRedis6() {
+        ServerProfile.multiCoreIo(4).settings(WINDOWS_BINARY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectImpossibleThreadCounts() {
+        ServerProfile.multiCoreIo(0);
+    }
+
+    @Test
+    public void shouldComposeInOrder() {
+        final List<String> settings = ServerProfile.multiCoreIo(3).and(version -> Arrays.asList("maxmemory 64mb"))
+            .settings(LINUX_BINARY);
+        assertEquals(Arrays.asList("io-threads 3", "io-threads-do-reads yes", "maxmemory 64mb"), settings);
+    }
+
+    @Test
+    public void shouldReplayProductionConfig() throws IOException {
+        final Path conf = Files.createTempFile("production", ".conf");
+        try {
+            Files.write(conf, Arrays.asList("# persistence", "appendonly yes", "", "cluster-port 16379"), UTF_8);
+            final ServerProfile profile = ServerProfile.productionLike(conf);
+            assertEquals(Arrays.asList("appendonly yes", "cluster-port 16379"), profile.settings(new RedisVersion(7, 2, 0)));
+            try {
+                profile.settings(LINUX_BINARY);
+                fail("cluster-port is not known to Redis 6.2");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("cluster-port"));
+            }
+        } finally {
+            Files.delete(conf);
+        }
+    }
+
+    @Test
+    public void shouldLeaveOutDirectivesThatEscapeEmbedding() throws IOException {
+        final Path conf = Files.createTempFile("production", ".conf");
+        try {
+            Files.write(conf, Arrays.asList("daemonize yes", "supervised systemd", "pidfile /var/run/redis_6379.pid",
+                "port 6379", "bind 10.0.0.1", "unixsocket /run/redis.sock", "unixsocketperm 700",
+                "logfile /var/log/redis/redis-server.log", "dir /var/lib/redis", "maxmemory 64mb"), UTF_8);
+            assertEquals(Arrays.asList("maxmemory 64mb"), ServerProfile.productionLike(conf).settings(LINUX_BINARY));
+        } finally {
+            Files.delete(conf);
+        }
+    }
+
+    @Test
+    public void shouldRejectProductionConfigWithIncludes() throws IOException {
+        final Path conf = Files.createTempFile("production", ".conf");
+        try {
+            Files.write(conf, Arrays.asList("include /etc/redis/common.conf", "maxmemory 64mb"), UTF_8);
+            ServerProfile.productionLike(conf);
+            fail("include can not be replayed");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("includes"));
+        } finally {
+            Files.delete(conf);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package redis.embedded.junit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+import redis.embedded.model.Endpoint;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@EmbeddedRedis
+class EmbeddedRedisExtensionTest {
+
+    private static RedisServer classServer;
+    private static RedisServer methodServer;
+
+    @BeforeAll
+    static void rememberClassServer(final RedisServer server) {
+        classServer = server;
+    }
+
+    @AfterAll
+    static void methodServerIsStopped() {
+        assertNotNull(methodServer);
+        assertFalse(methodServer.isActive());
+        assertTrue(classServer.isActive());
+    }
+
+    @Test
+    void shouldInjectTheClassServer(final RedisServer server, @RedisPort final int port, final Endpoint endpoint) throws IOException {
+        assertSame(classServer, server);
+        assertEquals(server.ports().get(0).intValue(), port);
+        assertEquals("PONG", RespClient.command(endpoint, "PING"));
+    }
+
+    @Test
+    @EmbeddedRedis(lifecycle = Lifecycle.PER_METHOD, settings = "maxmemory 1mb")
+    void shouldStartAServerForTheMethod(final RedisServer server) throws IOException {
+        methodServer = server;
+        assertNotSame(classServer, server);
+        assertEquals(Arrays.asList("maxmemory", "1048576"), RespClient.command(server.ports().get(0), "CONFIG", "GET", "maxmemory"));
+    }
+
+    @Test
+    @EmbeddedRedis(lifecycle = Lifecycle.PER_SUITE)
+    void shouldShareSuiteServers(final RedisServer first, final RedisServer second) {
+        assertSame(first, second);
+        assertNotSame(classServer, first);
+        assertTrue(first.isActive());
+    }
+
+}
@@ -0,0 +1,45 @@
+package redis.embedded.junit;
+
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.model.Statement;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static redis.embedded.junit.EmbeddedRedisRule.newEmbeddedRedisRule;
+
+public class EmbeddedRedisRuleTest {
+
+    @ClassRule
+    public static final EmbeddedRedisRule shared = newEmbeddedRedisRule();
+
+    @Rule
+    public final EmbeddedRedisRule fresh = newEmbeddedRedisRule().setting("databases 2");
+
+    @Test
+    public void shouldStartAServerPerTestAndPerClass() throws IOException {
+        assertNotEquals(shared.port(), fresh.port());
+        assertEquals("PONG", RespClient.command(shared.endpoint(), "PING"));
+        assertEquals("OK", RespClient.command(fresh.port(), "SELECT", "1"));
+    }
+
+    @Test
+    public void shouldReuseSuiteServersWithTheSameSettings() throws Throwable {
+        final EmbeddedRedisRule first = newEmbeddedRedisRule().sharedBySuite();
+        final EmbeddedRedisRule second = newEmbeddedRedisRule().sharedBySuite();
+        first.apply(new Statement() {
+            public void evaluate() throws Throwable {
+                second.apply(new Statement() {
+                    public void evaluate() {
+                        assertSame(first.server(), second.server());
+                    }
+                }, null).evaluate();
+            }
+        }, null).evaluate();
+        assertTrue(first.server().isActive());
+    }
+
+}
@@ -0,0 +1,53 @@
+package redis.embedded.model;
+
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import static redis.embedded.model.OsArchitecture.detectOSandArchitecture;
+
+public class PlatformProbeTest {
+
+    @Test
+    public void shouldDetectPlatformOnlyOnce() {
+        assertSame(detectOSandArchitecture(), detectOSandArchitecture());
+    }
+
+    @Test
+    public void shouldAgreeWithJvmArchitecture() {
+        final Architecture expected = Architecture.fromName(System.getProperty("os.arch"));
+        assumeTrue(expected != null);
+        assertEquals(expected, detectOSandArchitecture().arch);
+    }
+
+    @Test
+    public void shouldReadJvmExecutableHeadersOnLinux() {
+        assumeTrue(detectOSandArchitecture().os == OS.UNIX);
+        assertNotNull(PlatformProbe.readElfArchitecture(Paths.get("/proc/self/exe")));
+        assertNotEquals(Libc.ANY, detectOSandArchitecture().libc);
+    }
+
+    @Test
+    public void shouldMapArchitectureNames() {
+        assertEquals(Architecture.x86_64, Architecture.fromName("amd64"));
+        assertEquals(Architecture.aarch64, Architecture.fromName("arm64"));
+        assertEquals(Architecture.x86, Architecture.fromName("i686"));
+        assertNull(Architecture.fromName("sparc"));
+    }
+
+    @Test
+    public void shouldPreferExactLibcMatch() {
+        final Map<OsArchitecture, String> options = new HashMap<>();
+        options.put(new OsArchitecture(OS.UNIX, Architecture.x86_64), "any");
+        options.put(new OsArchitecture(OS.UNIX, Architecture.x86_64, Libc.MUSL), "musl");
+
+        assertEquals("musl", new OsArchitecture(OS.UNIX, Architecture.x86_64, Libc.MUSL).selectFrom(options));
+        assertEquals("any", new OsArchitecture(OS.UNIX, Architecture.x86_64, Libc.GLIBC).selectFrom(options));
+        assertNull(new OsArchitecture(OS.UNIX, Architecture.aarch64, Libc.GLIBC).selectFrom(options));
+    }
+
+}
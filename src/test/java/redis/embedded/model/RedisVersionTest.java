@@ -0,0 +1,29 @@
+package redis.embedded.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RedisVersionTest {
+
+    @Test
+    public void shouldParseVersionOutput() {
+        assertEquals(new RedisVersion(6, 2, 11),
+            RedisVersion.parse("Redis server v=6.2.11 sha=00000000:0 malloc=jemalloc-5.1.0 bits=64 build=f5b1f28871c566b4"));
+        assertEquals(new RedisVersion(5, 0, 14), RedisVersion.parse("Redis server v=5.0.14.1 sha=ec77f72d:0 malloc=jemalloc-5.2.1-redis bits=64"));
+        assertEquals(new RedisVersion(7, 0, 0), RedisVersion.parse("7.0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOutputWithoutVersion() {
+        RedisVersion.parse("redis-server: command not found");
+    }
+
+    @Test
+    public void shouldCompareVersions() {
+        assertTrue(new RedisVersion(6, 2, 0).atLeast(6, 0));
+        assertTrue(new RedisVersion(7, 0, 0).atLeast(6, 2));
+        assertFalse(new RedisVersion(5, 0, 14).atLeast(6, 0));
+        assertTrue(new RedisVersion(6, 2, 6).compareTo(new RedisVersion(6, 2, 11)) < 0);
+    }
+}
@@ -0,0 +1,26 @@
+package redis.embedded.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static redis.embedded.model.StartupPhase.*;
+
+public class StartupStatsTest {
+
+    @Test
+    public void shouldForgetThePreviousStopOnly() {
+        final StartupStats stats = new StartupStats();
+        stats.record(READINESS, 5);
+        stats.record(STOP, 7);
+        stats.record(STOP_SIGTERM, 3);
+        stats.record(STOP_SIGKILL, 2);
+
+        stats.clearStopPhases();
+
+        assertEquals(5, stats.nanos(READINESS));
+        assertEquals(0, stats.nanos(STOP));
+        assertEquals(0, stats.nanos(STOP_SIGTERM));
+        assertEquals(0, stats.nanos(STOP_SIGKILL));
+    }
+
+}
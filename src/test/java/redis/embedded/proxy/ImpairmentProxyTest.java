@@ -0,0 +1,103 @@
+package redis.embedded.proxy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.embedded.RedisServer;
+import redis.embedded.util.RespClient;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.*;
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.util.RespClient.DEFAULT_HOST;
+
+public class ImpairmentProxyTest {
+
+    private RedisServer server;
+    private ImpairmentProxy proxy;
+
+    @Before
+    public void setUp() throws IOException {
+        server = newRedisServer().port(6391).build();
+        server.start();
+        proxy = ImpairmentProxy.inFrontOf(server);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        proxy.close();
+        server.stop();
+    }
+
+    @Test
+    public void shouldChangeLatencyOnOpenConnections() throws IOException {
+        try (final RespClient client = new RespClient(DEFAULT_HOST, proxy.port(), 2000)) {
+            assertTrue(roundTripMillis(client) < 40);
+            proxy.impairments().latency(40);
+            assertTrue(roundTripMillis(client) >= 80);
+            proxy.impairments().clear();
+            assertTrue(roundTripMillis(client) < 40);
+        }
+    }
+
+    @Test
+    public void shouldHoldTrafficDuringAPartition() throws IOException {
+        proxy.impairments().partition();
+        try (final RespClient client = new RespClient(DEFAULT_HOST, proxy.port(), 200)) {
+            client.call("PING");
+            fail("A partitioned server should not answer");
+        } catch (IOException expected) {
+            /* timed out */
+        }
+        proxy.impairments().heal();
+        assertEquals("PONG", RespClient.command(proxy.port(), "PING"));
+    }
+
+    @Test
+    public void shouldResetOpenConnections() throws IOException {
+        try (final RespClient client = new RespClient(DEFAULT_HOST, proxy.port(), 2000)) {
+            client.call("PING");
+            proxy.resetConnections();
+            try {
+                client.call("PING");
+                fail("The connection was reset");
+            } catch (IOException expected) {
+                /* reset */
+            }
+        }
+        assertEquals("PONG", RespClient.command(proxy.port(), "PING"));
+    }
+
+    @Test
+    public void shouldCapBandwidth() throws IOException {
+        final char[] value = new char[64 * 1024];
+        Arrays.fill(value, 'x');
+        proxy.impairments().bandwidth(128 * 1024);
+        try (final RespClient client = new RespClient(DEFAULT_HOST, proxy.port(), 5000)) {
+            final long start = System.nanoTime();
+            assertEquals("OK", client.call("SET", "big", new String(value)));
+            assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+        }
+    }
+
+    @Test
+    public void shouldProxyEveryPort() throws IOException {
+        try (final ImpairmentProxies proxies = ImpairmentProxies.inFrontOfEach(server)) {
+            final int port = proxies.portMapping().get(6391);
+            assertEquals(Collections.singletonList(port), proxies.ports());
+            assertEquals("PONG", RespClient.command(port, "PING"));
+            assertEquals(1, proxies.proxyFor(6391).acceptedConnections());
+        }
+    }
+
+    private static long roundTripMillis(final RespClient client) throws IOException {
+        final long start = System.nanoTime();
+        assertEquals("PONG", client.call("PING"));
+        return NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+}
@@ -0,0 +1,31 @@
+package redis.embedded.util;
+
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static redis.embedded.util.ClusterSlots.slotOf;
+
+public class ClusterSlotsTest {
+
+    @Test
+    public void shouldMatchReferenceChecksum() {
+        final byte[] reference = "123456789".getBytes(US_ASCII);
+        assertEquals(0x31C3, ClusterSlots.crc16(reference, 0, reference.length));
+        assertEquals(12182, slotOf("foo"));
+    }
+
+    @Test
+    public void shouldHashOnlyTheHashTag() {
+        assertEquals(slotOf("user1000"), slotOf("{user1000}.following"));
+        assertEquals(slotOf("{user1000}.following"), slotOf("{user1000}.followers"));
+        assertEquals(slotOf("bar"), slotOf("foo{bar}{zap}"));
+    }
+
+    @Test
+    public void shouldHashWholeKeyForEmptyOrUnclosedTag() {
+        assertEquals(ClusterSlots.crc16("foo{}{bar}".getBytes(US_ASCII), 0, 10) & 16383, slotOf("foo{}{bar}"));
+        assertEquals(ClusterSlots.crc16("foo{bar".getBytes(US_ASCII), 0, 7) & 16383, slotOf("foo{bar"));
+    }
+
+}
@@ -0,0 +1,33 @@
+package redis.embedded.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class LogBufferTest {
+
+    @Test
+    public void shouldReturnLastLinesInOrder() {
+        final LogBuffer buffer = new LogBuffer(3);
+        buffer.add("a");
+        buffer.add("b");
+
+        assertEquals(Arrays.asList("a", "b"), buffer.last(5));
+        assertEquals(Collections.singletonList("b"), buffer.last(1));
+    }
+
+    @Test
+    public void shouldOverwriteOldestLines() {
+        final LogBuffer buffer = new LogBuffer(3);
+        for (final String line : Arrays.asList("a", "b", "c", "d", "e")) {
+            buffer.add(line);
+        }
+
+        assertEquals(Arrays.asList("c", "d", "e"), buffer.last(10));
+        assertEquals(5, buffer.linesWritten());
+    }
+
+}
@@ -0,0 +1,39 @@
+package redis.embedded.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertTrue;
+
+public class LogPumpTest {
+
+    @Test
+    public void shouldKeepPumpingWhileADeadProcessLeavesItsStreamOpen() throws IOException, InterruptedException {
+        final Process exited = new ProcessBuilder("sh", "-c", "true").start();
+        exited.waitFor();
+        // Stands in for a pipe a forked child still holds: empty, yet a read would block
+        final PipedInputStream held = new PipedInputStream(new PipedOutputStream());
+        final CountDownLatch heldEnded = new CountDownLatch(1);
+        LogPump.shared().register(exited, held, new LogPump.LineHandler() {
+            public void onLine(final String line) {}
+            public void onEnd() {
+                heldEnded.countDown();
+            }
+        });
+
+        final Process other = new ProcessBuilder("sh", "-c", "sleep 0.2; echo second").start();
+        final CountDownLatch secondLine = new CountDownLatch(1);
+        LogPump.shared().register(other, other.getInputStream(), line -> {
+            if (line.equals("second")) secondLine.countDown();
+        });
+
+        assertTrue(secondLine.await(2, SECONDS));
+        assertTrue(heldEnded.await(2, SECONDS));
+    }
+
+}
@@ -0,0 +1,102 @@
+package redis.embedded.util;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import redis.embedded.RedisServer;
+import redis.embedded.error.RespError;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+import static redis.embedded.RedisServer.newRedisServer;
+import static redis.embedded.core.PortProvider.newEphemeralPortProvider;
+
+public class RespClientTest {
+
+    private static RedisServer server;
+    private static int port;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        port = newEphemeralPortProvider().get();
+        server = newRedisServer().port(port).build();
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopServer() throws IOException {
+        server.stop();
+    }
+
+    @Test
+    public void shouldPipelineManyCommandsPerFlush() throws IOException {
+        try (final RespClient client = RespClient.connect(port)) {
+            client.send("DEL", "counter").readLong();
+            for (int i = 0; i < 10000; i++) client.send("INCR", "counter");
+            for (int i = 1; i <= 10000; i++) assertEquals(i, client.readLong());
+            client.send("SET", "key", "value").readOk();
+            assertEquals("value", client.call("GET", "key"));
+            assertNull(client.call("GET", "missing"));
+        }
+    }
+
+    @Test
+    public void shouldRoundTripValuesLargerThanTheBuffers() throws IOException {
+        final byte[] value = new byte[300 * 1024];
+        for (int i = 0; i < value.length; i++) value[i] = (byte) i;
+        try (final RespClient client = RespClient.connect(port)) {
+            client.send("SET".getBytes(UTF_8), "large".getBytes(UTF_8), value).readOk();
+            assertArrayEquals(value, (byte[]) client.call("GET".getBytes(UTF_8), "large".getBytes(UTF_8)));
+        }
+    }
+
+    @Test
+    public void shouldKeepPipelineInSyncAfterError() throws IOException {
+        try (final RespClient client = RespClient.connect(port)) {
+            client.send("SET", "text", "abc").send("INCR", "text").send("PING");
+            client.readOk();
+            try {
+                client.readLong();
+                fail("INCR on a string should fail");
+            } catch (RespError e) {
+                assertTrue(e.getMessage().startsWith("ERR"));
+            }
+            assertEquals("PONG", client.read());
+        }
+    }
+
+    @Test
+    public void shouldParseResp3Replies() throws IOException {
+        try (final RespClient client = RespClient.connect(port)) {
+            final Map<?, ?> hello = (Map<?, ?>) client.call("HELLO", "3");
+            assertEquals(3L, hello.get("proto"));
+
+            client.call("DEL", "hash");
+            client.call("HSET", "hash", "field", "value");
+            assertEquals("value", ((Map<?, ?>) client.call("HGETALL", "hash")).get("field"));
+            assertNull(client.call("GET", "missing"));
+            assertEquals(1.5, client.call("ZINCRBY", "zset", "1.5", "member"));
+
+            client.call("ZREM", "zset", "member");
+        }
+    }
+
+    @Test
+    public void shouldReturnNestedErrorsInsideArrays() throws IOException {
+        try (final RespClient client = RespClient.connect(port)) {
+            client.call("MULTI");
+            client.call("SET", "multi", "abc");
+            client.call("INCR", "multi");
+            final List<?> replies = (List<?>) client.call("EXEC");
+            assertEquals("OK", replies.get(0));
+            assertTrue(replies.get(1) instanceof RespError);
+            assertEquals(Arrays.asList("PONG"), Arrays.asList(client.call("PING")));
+        }
+    }
+
+}